@@ -0,0 +1,31 @@
+-- ================================
+-- BUSQUEDA DE PRODUCTOS (full-text + trigramas)
+-- ================================
+-- reemplaza los scans secuenciales de "name ~* regex" por indices GIN:
+--  * search_vector: nombre (peso A) + descripcion (peso B), sin acentos y con stemming en español.
+--  * idx_products_name_trgm: tolerancia a errores de tipeo sobre el nombre (operador <%).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'store_es') THEN
+        CREATE TEXT SEARCH CONFIGURATION store_es (COPY = spanish);
+        ALTER TEXT SEARCH CONFIGURATION store_es
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, spanish_stem;
+    END IF;
+END
+$$;
+
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('store_es', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('store_es', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector
+    ON products USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+    ON products USING GIN (name gin_trgm_ops);
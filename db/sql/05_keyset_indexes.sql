@@ -0,0 +1,11 @@
+-- ================================
+-- INDICES PARA PAGINACION KEYSET (cursor)
+-- ================================
+-- cada listado por cursor filtra "(clave, id) > (:clave, :id)" y ordena por
+-- la misma tupla: con estos indices la pagina N cuesta lo mismo que la primera.
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products (name, id);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
+CREATE INDEX IF NOT EXISTS idx_products_subcategory_name_id ON products (subcategory_id, name, id);
+
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at_id ON orders (status, created_at, id);
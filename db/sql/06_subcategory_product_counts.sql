@@ -0,0 +1,66 @@
+-- ================================
+-- CONTADORES DE PRODUCTOS POR SUBCATEGORIA
+-- ================================
+-- product_count / in_stock_count se mantienen en la base con triggers por
+-- sentencia (tablas de transicion): una importacion o actualizacion masiva
+-- aplica un solo UPDATE agregado por subcategoria, y un descuento de stock que
+-- no agota el producto no toca la fila de la subcategoria.
+-- Los totales por categoria se suman desde las subcategorias.
+ALTER TABLE subcategories ADD COLUMN IF NOT EXISTS product_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE subcategories ADD COLUMN IF NOT EXISTS in_stock_count INTEGER NOT NULL DEFAULT 0;
+
+-- aplica los deltas (filas nuevas suman, filas viejas restan)
+CREATE OR REPLACE FUNCTION products_apply_subcategory_counts() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE subcategories s
+        SET product_count = s.product_count + d.total,
+            in_stock_count = s.in_stock_count + d.in_stock
+        FROM (SELECT subcategory_id, count(*) AS total, count(*) FILTER (WHERE stock > 0) AS in_stock
+              FROM new_rows WHERE subcategory_id IS NOT NULL
+              GROUP BY subcategory_id) d
+        WHERE s.id = d.subcategory_id;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE subcategories s
+        SET product_count = s.product_count - d.total,
+            in_stock_count = s.in_stock_count - d.in_stock
+        FROM (SELECT subcategory_id, count(*) AS total, count(*) FILTER (WHERE stock > 0) AS in_stock
+              FROM old_rows WHERE subcategory_id IS NOT NULL
+              GROUP BY subcategory_id) d
+        WHERE s.id = d.subcategory_id;
+    ELSE
+        UPDATE subcategories s
+        SET product_count = s.product_count + d.total,
+            in_stock_count = s.in_stock_count + d.in_stock
+        FROM (SELECT subcategory_id, sum(total) AS total, sum(in_stock) AS in_stock
+              FROM (SELECT subcategory_id, 1 AS total, (stock > 0)::int AS in_stock FROM new_rows
+                    UNION ALL
+                    SELECT subcategory_id, -1, -(stock > 0)::int FROM old_rows) x
+              WHERE subcategory_id IS NOT NULL
+              GROUP BY subcategory_id
+              HAVING sum(total) <> 0 OR sum(in_stock) <> 0) d
+        WHERE s.id = d.subcategory_id;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_products_counts_insert ON products;
+CREATE TRIGGER trg_products_counts_insert
+    AFTER INSERT ON products REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION products_apply_subcategory_counts();
+
+DROP TRIGGER IF EXISTS trg_products_counts_update ON products;
+CREATE TRIGGER trg_products_counts_update
+    AFTER UPDATE ON products REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION products_apply_subcategory_counts();
+
+DROP TRIGGER IF EXISTS trg_products_counts_delete ON products;
+CREATE TRIGGER trg_products_counts_delete
+    AFTER DELETE ON products REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION products_apply_subcategory_counts();
+
+-- carga inicial (y recalculo si los contadores quedaron desfasados)
+UPDATE subcategories s
+SET product_count = (SELECT count(*) FROM products p WHERE p.subcategory_id = s.id),
+    in_stock_count = (SELECT count(*) FROM products p WHERE p.subcategory_id = s.id AND p.stock > 0);
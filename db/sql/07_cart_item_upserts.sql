@@ -0,0 +1,74 @@
+-- ================================
+-- ITEMS DE CARRITO POR FILA
+-- ================================
+-- cada producto aparece una sola vez por carrito: agregar es un
+-- INSERT ... ON CONFLICT (cart_id, product_id) que suma la cantidad.
+-- total_amount (y updated_at, la ultima actividad) se mantienen con triggers
+-- por sentencia sobre cart_items: cambiar un item cuesta lo mismo sin importar
+-- cuantos tenga el carrito.
+
+-- fusiona productos repetidos dentro de un carrito antes del indice unico
+WITH dups AS (
+    SELECT cart_id, product_id, min(id) AS keep_id, sum(quantity) AS quantity
+    FROM cart_items
+    GROUP BY cart_id, product_id
+    HAVING count(*) > 1
+), merged AS (
+    UPDATE cart_items ci SET quantity = d.quantity FROM dups d WHERE ci.id = d.keep_id
+)
+DELETE FROM cart_items ci
+USING dups d
+WHERE ci.cart_id = d.cart_id AND ci.product_id = d.product_id AND ci.id <> d.keep_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_cart_items_cart_product ON cart_items (cart_id, product_id);
+
+-- aplica los deltas de subtotal (filas nuevas suman, filas viejas restan)
+CREATE OR REPLACE FUNCTION cart_items_apply_cart_totals() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE carts c
+        SET total_amount = COALESCE(c.total_amount, 0) + d.delta,
+            updated_at = localtimestamp
+        FROM (SELECT cart_id, sum(quantity * unit_price) AS delta
+              FROM new_rows GROUP BY cart_id) d
+        WHERE c.id = d.cart_id;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE carts c
+        SET total_amount = COALESCE(c.total_amount, 0) - d.delta,
+            updated_at = localtimestamp
+        FROM (SELECT cart_id, sum(quantity * unit_price) AS delta
+              FROM old_rows GROUP BY cart_id) d
+        WHERE c.id = d.cart_id;
+    ELSE
+        UPDATE carts c
+        SET total_amount = COALESCE(c.total_amount, 0) + d.delta,
+            updated_at = localtimestamp
+        FROM (SELECT cart_id, sum(amount) AS delta
+              FROM (SELECT cart_id, quantity * unit_price AS amount FROM new_rows
+                    UNION ALL
+                    SELECT cart_id, -(quantity * unit_price) FROM old_rows) x
+              GROUP BY cart_id) d
+        WHERE c.id = d.cart_id;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_cart_items_totals_insert ON cart_items;
+CREATE TRIGGER trg_cart_items_totals_insert
+    AFTER INSERT ON cart_items REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION cart_items_apply_cart_totals();
+
+DROP TRIGGER IF EXISTS trg_cart_items_totals_update ON cart_items;
+CREATE TRIGGER trg_cart_items_totals_update
+    AFTER UPDATE ON cart_items REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION cart_items_apply_cart_totals();
+
+DROP TRIGGER IF EXISTS trg_cart_items_totals_delete ON cart_items;
+CREATE TRIGGER trg_cart_items_totals_delete
+    AFTER DELETE ON cart_items REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION cart_items_apply_cart_totals();
+
+-- carga inicial (y recalculo si los totales quedaron desfasados)
+UPDATE carts c
+SET total_amount = COALESCE((SELECT sum(ci.quantity * ci.unit_price) FROM cart_items ci WHERE ci.cart_id = c.id), 0);
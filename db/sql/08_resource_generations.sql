@@ -0,0 +1,14 @@
+-- ================================
+-- GENERACIONES COMPARTIDAS (ETags entre instancias)
+-- ================================
+-- cada escritura confirmada de productos o categorias suma uno a su fila. Cada
+-- instancia las relee cada store.etag.sync-interval: si otra instancia escribio,
+-- invalida sus caches y cambia sus ETags (sin esto seguiria respondiendo 304 con
+-- datos viejos hasta una escritura propia).
+CREATE TABLE IF NOT EXISTS resource_generations (
+    name       VARCHAR(32) PRIMARY KEY,
+    generation BIGINT      NOT NULL DEFAULT 0
+);
+
+INSERT INTO resource_generations (name) VALUES ('products'), ('categories')
+ON CONFLICT (name) DO NOTHING;
@@ -0,0 +1,75 @@
+package com.store.money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * total de un carrito: cadena de {@link BigDecimal} (como se calculaba antes) contra {@link Money}.
+ * <p>Ejecutar con {@code mvn -Pjmh compile exec:exec}; para ver asignaciones por
+ * operación agregar {@code -Djmh.args="-prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    @Param({"1", "10", "50"})
+    int items;
+
+    BigDecimal[] prices;
+    Money[] moneyPrices;
+    int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new BigDecimal[items];
+        quantities = new int[items];
+        for (int i = 0; i < items; i++) {
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(10_000_000), 2);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+        moneyPrices = Arrays.stream(prices).map(Money::of).toArray(Money[]::new);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < items; i++)
+            total = total.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal moneyTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < items; i++)
+            total = total.plus(moneyPrices[i].times(quantities[i]));
+        return total.toBigDecimal();
+    }
+
+    /** incluye la conversión de entrada desde {@code NUMERIC}, como en los mappers. */
+    @Benchmark
+    public BigDecimal moneyTotalFromBigDecimal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < items; i++)
+            total = total.plus(Money.of(prices[i]).times(quantities[i]));
+        return total.toBigDecimal();
+    }
+}
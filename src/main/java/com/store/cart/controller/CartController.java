@@ -1,13 +1,16 @@
 package com.store.cart.controller;
 
+import com.store.cart.dto.CartBatchRequestDTO;
 import com.store.cart.dto.CartItemRequestDTO;
 import com.store.cart.dto.CartResponseDTO;
 import com.store.cart.service.CartService;
+import com.store.querycount.QueryBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +34,7 @@ public class CartController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Carrito obtenido correctamente"),
     })
+    @QueryBudget(1)
     @GetMapping
     public ResponseEntity<CartResponseDTO> getCart(
             @Parameter(description = "Identificador de sesión", example = "session-123")
@@ -69,6 +73,35 @@ public class CartController {
     }
 
 
+    // LOTE DE OPERACIONES
+    @Operation(
+            summary = "Aplicar varias operaciones al carrito",
+            description = "Agrega (ADD), fija la cantidad (SET, 0 quita) o quita (REMOVE) productos en orden, "
+                    + "en una sola transacción: si alguna operación falla no se aplica ninguna. "
+                    + "Pensado para sincronizar el carrito guardado en el navegador."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Operaciones aplicadas; devuelve el carrito resultante"),
+            @ApiResponse(responseCode = "400", description = "Operación inválida o stock insuficiente"),
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+    })
+    @PatchMapping("/items:batch")
+    public ResponseEntity<CartResponseDTO> applyBatch(
+            @RequestHeader(value = "X-Session-Id", required = false) String sessionId,
+            @Valid @RequestBody CartBatchRequestDTO request) {
+
+        String resolvedSessionId = sessionId == null || sessionId.isBlank()
+                ? "session-" + UUID.randomUUID().toString()
+                : sessionId;
+
+        CartResponseDTO response = cartService.applyBatch(resolvedSessionId, request.getOperations());
+
+        return ResponseEntity.ok()
+                .header("X-Session-Id", response.getSessionId())
+                .body(response);
+    }
+
+
     // ELIMINAR
     @Operation(
             summary = "Eliminar producto del carrito",
@@ -0,0 +1,26 @@
+package com.store.cart.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * una operación de {@code PATCH /carts/items:batch}.
+ * <p>{@code quantity} es obligatoria (mayor a 0) en {@code ADD}, obligatoria
+ * (0 o más) en {@code SET} y se ignora en {@code REMOVE}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchOperationDTO {
+    @NotNull(message = "se requiere el tipo de operación")
+    private CartOperationType op;
+
+    @NotNull(message = "se requiere el ID del producto")
+    private Long productId;
+
+    @Min(value = 0, message = "la cantidad no puede ser negativa")
+    private Integer quantity;
+}
@@ -0,0 +1,17 @@
+package com.store.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class CartBatchRequestDTO {
+    @NotEmpty(message = "se requiere al menos una operación")
+    @Size(max = 200, message = "se admiten hasta 200 operaciones por pedido")
+    private List<@Valid CartBatchOperationDTO> operations;
+}
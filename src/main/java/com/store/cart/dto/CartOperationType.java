@@ -0,0 +1,13 @@
+package com.store.cart.dto;
+
+/**
+ * tipo de operación de {@link CartBatchOperationDTO}.
+ */
+public enum CartOperationType {
+    /** suma la cantidad a la que ya tenga el carrito (o agrega el producto). */
+    ADD,
+    /** fija la cantidad; 0 quita el producto. */
+    SET,
+    /** quita el producto si está en el carrito. */
+    REMOVE
+}
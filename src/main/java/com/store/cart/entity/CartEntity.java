@@ -20,6 +20,8 @@ public class CartEntity {
     @Column(unique = true, nullable = false)
     private String sessionId;
 
+    // lo mantiene la base con triggers sobre cart_items (db/sql/07_cart_item_upserts.sql)
+    @Column(insertable = false, updatable = false)
     private BigDecimal totalAmount = BigDecimal.ZERO;
 
     @CreationTimestamp
@@ -29,5 +31,6 @@ public class CartEntity {
     private LocalDateTime updatedAt;
 
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
     private List<CartItemEntity> items = new ArrayList<>();
 }
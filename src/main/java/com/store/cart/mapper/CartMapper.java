@@ -4,8 +4,8 @@ import com.store.cart.dto.CartItemResponseDTO;
 import com.store.cart.dto.CartResponseDTO;
 import com.store.cart.entity.CartEntity;
 import com.store.cart.entity.CartItemEntity;
+import com.store.money.Money;
 import org.springframework.stereotype.Component;
-import java.math.BigDecimal;
 import java.util.List;
 
 @Component
@@ -28,17 +28,15 @@ public class CartMapper {
 
     public CartItemResponseDTO itemToDto(CartItemEntity entity) {
 
-        BigDecimal price = entity.getUnitPrice() != null ? entity.getUnitPrice() : BigDecimal.ZERO;
-
-        BigDecimal subtotal = price.multiply(BigDecimal.valueOf(entity.getQuantity()));
+        Money price = Money.of(entity.getUnitPrice());
 
         return CartItemResponseDTO.builder()
                 .id(entity.getId())
                 .productId(entity.getProduct().getId())
                 .productName(entity.getProduct().getName())
                 .quantity(entity.getQuantity())
-                .unitPrice(price)
-                .subtotal(subtotal)
+                .unitPrice(price.toBigDecimal())
+                .subtotal(price.times(entity.getQuantity()).toBigDecimal())
                 .build();
     }
 }
\ No newline at end of file
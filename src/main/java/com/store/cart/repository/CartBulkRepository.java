@@ -0,0 +1,203 @@
+package com.store.cart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * escritura en lote de carritos completos con JDBC plano (write-behind del carrito en memoria).
+ * <p>Un lote se guarda con tres sentencias, sin importar cuántos carritos traiga:
+ * upsert de {@code carts} por {@code session_id}, borrado de sus ítems y
+ * reinserción de los ítems actuales, todo con {@code unnest(...)}; el total lo
+ * recalculan los triggers de {@code cart_items}.
+ * Debe llamarse dentro de una transacción.
+ * <p>También aplica los lotes de {@code PATCH /carts/items:batch} sobre un carrito
+ * ({@link #setQuantities}, {@link #deleteProducts}) y borra en lotes los carritos
+ * abandonados ({@link #deleteExpired}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartBulkRepository {
+    private static final String UPSERT_CARTS = """
+            INSERT INTO carts (session_id, total_amount, created_at, updated_at)
+            SELECT u.session_id, 0, ?, ?
+            FROM unnest(?::varchar[]) AS u(session_id)
+            ON CONFLICT (session_id) DO UPDATE
+            SET updated_at = EXCLUDED.updated_at
+            RETURNING id, session_id
+            """;
+
+    private static final String DELETE_ITEMS = "DELETE FROM cart_items WHERE cart_id = ANY(?)";
+
+    // los productos borrados mientras el carrito estaba en memoria se descartan
+    private static final String INSERT_ITEMS = """
+            INSERT INTO cart_items (quantity, unit_price, cart_id, product_id)
+            SELECT u.quantity, u.unit_price, u.cart_id, u.product_id
+            FROM unnest(?::int[], ?::numeric[], ?::bigint[], ?::bigint[]) AS u(quantity, unit_price, cart_id, product_id)
+            JOIN products p ON p.id = u.product_id
+            """;
+
+    /*
+     * cantidades finales de un lote: los productos nuevos entran al precio actual,
+     * los que ya estaban conservan el suyo. Una fila que aumenta la cantidad por
+     * encima del stock no se escribe (quien llama compara la cantidad de filas).
+     */
+    private static final String UPSERT_QUANTITIES = """
+            INSERT INTO cart_items (cart_id, product_id, quantity, unit_price)
+            SELECT c.id, p.id, u.quantity, p.price
+            FROM (SELECT ?::bigint AS id) c
+            CROSS JOIN unnest(?::bigint[], ?::int[]) AS u(product_id, quantity)
+            JOIN products p ON p.id = u.product_id
+            LEFT JOIN cart_items ci ON ci.cart_id = c.id AND ci.product_id = u.product_id
+            WHERE p.stock >= u.quantity OR u.quantity <= ci.quantity
+            ON CONFLICT (cart_id, product_id) DO UPDATE
+            SET quantity = EXCLUDED.quantity
+            """;
+
+    /*
+     * un lote de carritos vencidos por rango de ID, con sus ítems, en una sola sentencia.
+     * SKIP LOCKED: los carritos que otro nodo ya está borrando (o que se están
+     * usando) se saltean en lugar de esperar; si alguno se tocó mientras tanto,
+     * el filtro por updated_at se vuelve a evaluar sobre la fila actual.
+     */
+    private static final String DELETE_EXPIRED = """
+            WITH expired AS (
+                SELECT id FROM carts
+                WHERE id > ? AND updated_at < ?
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ), deleted_items AS (
+                DELETE FROM cart_items ci USING expired e WHERE ci.cart_id = e.id RETURNING ci.id
+            ), deleted_carts AS (
+                DELETE FROM carts c USING expired e WHERE c.id = e.id RETURNING c.id
+            )
+            SELECT (SELECT count(*) FROM deleted_carts),
+                   (SELECT count(*) FROM deleted_items),
+                   (SELECT max(id) FROM expired)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * reemplaza el contenido de cada carrito del lote por el indicado.
+     * @param carts carritos sin sesiones repetidas
+     * @return ID de cada carrito por sesión
+     */
+    public Map<String, Long> saveCarts(List<CartRow> carts) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(connection -> prepareUpsert(connection, carts),
+                rs -> { ids.put(rs.getString(2), rs.getLong(1)); });
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DELETE_ITEMS);
+            ps.setArray(1, connection.createArrayOf("int8", ids.values().toArray()));
+            return ps;
+        });
+        jdbcTemplate.update(connection -> prepareInsertItems(connection, carts, ids));
+        return ids;
+    }
+
+    /**
+     * bloquea el carrito de la sesión hasta el fin de la transacción (los lotes
+     * sobre un mismo carrito se aplican de a uno).
+     * @return ID del carrito, o {@code null} si no existe
+     */
+    public Long lockCart(String sessionId) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM carts WHERE session_id = ? FOR UPDATE", Long.class, sessionId);
+        return ids.isEmpty() ? null : ids.getFirst();
+    }
+
+    public Map<Long, Integer> findQuantities(Long cartId) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, quantity FROM cart_items WHERE cart_id = ?",
+                rs -> { quantities.put(rs.getLong(1), rs.getInt(2)); }, cartId);
+        return quantities;
+    }
+
+    /**
+     * fija la cantidad de cada producto en una sola sentencia.
+     * @return filas escritas; menos que {@code quantities.size()} si a alguna no le alcanzó el stock
+     */
+    public int setQuantities(Long cartId, Map<Long, Integer> quantities) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_QUANTITIES);
+            ps.setLong(1, cartId);
+            ps.setArray(2, connection.createArrayOf("int8", quantities.keySet().toArray()));
+            ps.setArray(3, connection.createArrayOf("int4", quantities.values().toArray()));
+            return ps;
+        });
+    }
+
+    public int deleteProducts(Long cartId, Collection<Long> productIds) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ANY(?)");
+            ps.setLong(1, cartId);
+            ps.setArray(2, connection.createArrayOf("int8", productIds.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * borra (en su propia transacción) hasta {@code limit} carritos sin actividad
+     * desde {@code cutoff}, con ID mayor a {@code afterId}.
+     * @return cantidades borradas y último ID alcanzado ({@code null} si no quedaban)
+     */
+    public ExpiredBatch deleteExpired(LocalDateTime cutoff, long afterId, int limit) {
+        return jdbcTemplate.queryForObject(DELETE_EXPIRED,
+                (rs, rowNum) -> new ExpiredBatch(rs.getInt(1), rs.getInt(2), (Long) rs.getObject(3)),
+                afterId, Timestamp.valueOf(cutoff), limit);
+    }
+
+    private static PreparedStatement prepareUpsert(Connection connection, List<CartRow> carts) throws SQLException {
+        Object[] sessions = carts.stream().map(CartRow::sessionId).toArray();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        PreparedStatement ps = connection.prepareStatement(UPSERT_CARTS);
+        ps.setTimestamp(1, now);
+        ps.setTimestamp(2, now);
+        ps.setArray(3, connection.createArrayOf("varchar", sessions));
+        return ps;
+    }
+
+    private static PreparedStatement prepareInsertItems(Connection connection, List<CartRow> carts,
+                                                        Map<String, Long> ids) throws SQLException {
+        int n = carts.stream().mapToInt(cart -> cart.items().size()).sum();
+        Object[] quantities = new Object[n], prices = new Object[n], cartIds = new Object[n], productIds = new Object[n];
+        int i = 0;
+        for (CartRow cart : carts) {
+            for (ItemRow item : cart.items()) {
+                quantities[i] = item.quantity();
+                prices[i] = item.unitPrice();
+                cartIds[i] = ids.get(cart.sessionId());
+                productIds[i++] = item.productId();
+            }
+        }
+
+        PreparedStatement ps = connection.prepareStatement(INSERT_ITEMS);
+        ps.setArray(1, connection.createArrayOf("int4", quantities));
+        ps.setArray(2, connection.createArrayOf("numeric", prices));
+        ps.setArray(3, connection.createArrayOf("int8", cartIds));
+        ps.setArray(4, connection.createArrayOf("int8", productIds));
+        return ps;
+    }
+
+    public record CartRow(String sessionId, List<ItemRow> items) {}
+
+    public record ItemRow(Long productId, int quantity, BigDecimal unitPrice) {}
+
+    public record ExpiredBatch(int carts, int items, Long lastId) {}
+}
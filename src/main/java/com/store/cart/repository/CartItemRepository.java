@@ -2,9 +2,49 @@ package com.store.cart.repository;
 
 import com.store.cart.entity.CartItemEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
-
+/**
+ * cambios por fila sobre los ítems de un carrito, cada uno en una sola sentencia.
+ * <p>El total y la última actividad del carrito los actualizan los triggers
+ * de {@code db/sql/07_cart_item_upserts.sql}.
+ */
 public interface CartItemRepository extends JpaRepository<CartItemEntity,Long> {
-    Optional<CartItemEntity> findByCartIdAndProductId(Long cartId, Long productId);
-}
\ No newline at end of file
+    /**
+     * agrega el producto al carrito de la sesión o suma la cantidad si ya estaba,
+     * siempre que la cantidad resultante no supere el stock. El precio unitario
+     * es el del momento en que el producto entró al carrito.
+     * @return 1 si se aplicó; 0 si el carrito o el producto no existen o no alcanza el stock
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            INSERT INTO cart_items (cart_id, product_id, quantity, unit_price)
+            SELECT c.id, p.id, :quantity, p.price
+            FROM carts c, products p
+            WHERE c.session_id = :sessionId AND p.id = :productId AND p.stock >= :quantity
+            ON CONFLICT (cart_id, product_id) DO UPDATE
+            SET quantity = cart_items.quantity + EXCLUDED.quantity
+            WHERE cart_items.quantity + EXCLUDED.quantity
+                  <= (SELECT stock FROM products WHERE id = EXCLUDED.product_id)
+            """, nativeQuery = true)
+    int addItem(@Param("sessionId") String sessionId, @Param("productId") Long productId,
+                @Param("quantity") int quantity);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            DELETE FROM cart_items ci
+            USING carts c
+            WHERE ci.cart_id = c.id AND c.session_id = :sessionId AND ci.product_id = :productId
+            """, nativeQuery = true)
+    int deleteItem(@Param("sessionId") String sessionId, @Param("productId") Long productId);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            DELETE FROM cart_items ci
+            USING carts c
+            WHERE ci.cart_id = c.id AND c.session_id = :sessionId
+            """, nativeQuery = true)
+    int deleteAllItems(@Param("sessionId") String sessionId);
+}
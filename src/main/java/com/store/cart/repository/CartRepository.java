@@ -1,18 +1,29 @@
 package com.store.cart.repository;
 
 import com.store.cart.entity.CartEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<CartEntity,Long> {
     /**
-     * -busca el ID del "CLIENTE" al que le petenece
+     * -busca el ID del "CLIENTE" al que le petenece (con sus ítems y productos en la misma consulta)
      */
+    @EntityGraph(attributePaths = {"items", "items.product"})
     Optional<CartEntity> findBySessionId(String sessionId);
 
     /**
-     * -borra los carritos cuya fecha de actualización sea ANTERIOR a la fecha X
-    */
-     int deleteByUpdatedAtBefore(LocalDateTime cutoffTime);
+     * crea el carrito vacío de la sesión si todavía no existe.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO carts (session_id, total_amount, created_at, updated_at)
+            VALUES (:sessionId, 0, localtimestamp, localtimestamp)
+            ON CONFLICT (session_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("sessionId") String sessionId);
 }
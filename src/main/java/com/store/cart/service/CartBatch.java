@@ -0,0 +1,88 @@
+package com.store.cart.service;
+
+import com.store.cart.dto.CartBatchOperationDTO;
+import com.store.cart.dto.CartOperationType;
+import com.store.exception.BusinessException;
+import com.store.exception.ResourceNotFoundException;
+import com.store.product.dto.ProductResponseDTO;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * resolución de un lote de operaciones de carrito, común a ambos modos de guardado.
+ * <p>Las operaciones se aplican en orden sobre las cantidades actuales; el
+ * resultado es la cantidad final de cada producto que cambió (0 = se quita).
+ * El stock se valida sobre la cantidad final, y solo para los productos que
+ * aumentan: bajar la cantidad siempre se permite.
+ */
+final class CartBatch {
+
+    private CartBatch() {}
+
+    /** productos que el lote necesita conocer (los que se agregan o fijan). */
+    static Set<Long> referencedProductIds(List<CartBatchOperationDTO> operations) {
+        return operations.stream()
+                .filter(op -> op.getOp() != CartOperationType.REMOVE)
+                .map(CartBatchOperationDTO::getProductId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @param current cantidades actuales del carrito por producto
+     * @param operations operaciones en el orden recibido
+     * @param products productos referenciados por ID
+     * @return cantidad final por producto modificado, en orden de primera aparición
+     * @throws ResourceNotFoundException si se agrega o fija un producto que no existe
+     * @throws BusinessException si una cantidad es inválida o no alcanza el stock
+     */
+    static Map<Long, Integer> resolve(Map<Long, Integer> current, List<CartBatchOperationDTO> operations,
+                                      Map<Long, ProductResponseDTO> products) {
+        Map<Long, Integer> quantities = new HashMap<>(current);
+        Map<Long, Integer> touched = new LinkedHashMap<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            CartBatchOperationDTO op = operations.get(i);
+            Long productId = op.getProductId();
+            if (op.getOp() != CartOperationType.REMOVE && !products.containsKey(productId))
+                throw new ResourceNotFoundException(
+                        "operación " + (i + 1) + ": el producto ID " + productId + " no existe");
+
+            int quantity = switch (op.getOp()) {
+                case ADD -> {
+                    if (op.getQuantity() == null || op.getQuantity() <= 0)
+                        throw new BusinessException("operación " + (i + 1) + ": la cantidad debe ser mayor a 0");
+                    yield quantities.getOrDefault(productId, 0) + op.getQuantity();
+                }
+                case SET -> {
+                    if (op.getQuantity() == null)
+                        throw new BusinessException("operación " + (i + 1) + ": se requiere la cantidad");
+                    yield op.getQuantity();
+                }
+                case REMOVE -> 0;
+            };
+            quantities.put(productId, quantity);
+            touched.put(productId, quantity);
+        }
+
+        Map<Long, Integer> changes = new LinkedHashMap<>();
+        touched.forEach((productId, quantity) -> {
+            int before = current.getOrDefault(productId, 0);
+            if (quantity == before) return;
+
+            ProductResponseDTO product = products.get(productId);
+            if (quantity > before && product.getStock() < quantity)
+                throw new BusinessException("Sin stock suficiente para el producto: " + product.getName());
+            changes.put(productId, quantity);
+        });
+        return changes;
+    }
+
+    static Map<Long, ProductResponseDTO> byId(List<ProductResponseDTO> products) {
+        return products.stream().collect(Collectors.toMap(ProductResponseDTO::getId, p -> p, (a, b) -> a));
+    }
+}
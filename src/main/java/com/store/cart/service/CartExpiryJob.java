@@ -0,0 +1,78 @@
+package com.store.cart.service;
+
+import com.store.cart.repository.CartBulkRepository;
+import com.store.cart.repository.CartBulkRepository.ExpiredBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * borrado periódico de carritos abandonados (sin cambios durante {@code store.cart.expiry.ttl}).
+ * <p>Recorre {@code carts} por rangos de ID en lotes de {@code store.cart.expiry.batch-size},
+ * cada uno en su propia sentencia y commit: los locks duran lo que un lote y la
+ * tabla nunca se bloquea entera. Es seguro correrlo en varios nodos a la vez
+ * (ver {@link CartBulkRepository#deleteExpired}).
+ * <p>Por lote se loguea lo borrado y el tiempo; los totales quedan en las
+ * métricas {@code store.cart.expiry.carts}, {@code store.cart.expiry.items} y
+ * {@code store.cart.expiry.batch} (duración por lote).
+ */
+@Slf4j
+@Component
+public class CartExpiryJob {
+    private final CartBulkRepository cartBulkRepository;
+    private final Duration ttl;
+    private final int batchSize;
+    private final Counter expiredCarts;
+    private final Counter expiredItems;
+    private final Timer batchTimer;
+
+    public CartExpiryJob(CartBulkRepository cartBulkRepository, MeterRegistry meterRegistry,
+                         @Value("${store.cart.expiry.ttl}") Duration ttl,
+                         @Value("${store.cart.expiry.batch-size}") int batchSize) {
+        this.cartBulkRepository = cartBulkRepository;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+        this.expiredCarts = Counter.builder("store.cart.expiry.carts")
+                .description("carritos abandonados borrados").register(meterRegistry);
+        this.expiredItems = Counter.builder("store.cart.expiry.items")
+                .description("ítems de carritos abandonados borrados").register(meterRegistry);
+        this.batchTimer = Timer.builder("store.cart.expiry.batch")
+                .description("duración de cada lote de borrado de carritos").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${store.cart.expiry.interval}", fixedDelayString = "${store.cart.expiry.interval}")
+    public void expireCarts() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        long start = System.currentTimeMillis();
+        long carts = 0, items = 0, lastId = 0;
+
+        ExpiredBatch batch;
+        do {
+            long batchStart = System.nanoTime();
+            batch = cartBulkRepository.deleteExpired(cutoff, lastId, batchSize);
+            long batchNanos = System.nanoTime() - batchStart;
+            if (batch.lastId() == null) break;
+
+            batchTimer.record(Duration.ofNanos(batchNanos));
+            expiredCarts.increment(batch.carts());
+            expiredItems.increment(batch.items());
+            log.debug("Lote de carritos vencidos hasta ID {}: {} carritos, {} ítems en {} ms",
+                    batch.lastId(), batch.carts(), batch.items(), batchNanos / 1_000_000);
+
+            carts += batch.carts();
+            items += batch.items();
+            lastId = batch.lastId();
+        } while (batch.carts() == batchSize);
+
+        if (carts > 0)
+            log.info("Carritos abandonados borrados: {} carritos, {} ítems en {} ms",
+                    carts, items, System.currentTimeMillis() - start);
+    }
+}
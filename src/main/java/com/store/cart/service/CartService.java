@@ -1,7 +1,10 @@
 package com.store.cart.service;
 
+import com.store.cart.dto.CartBatchOperationDTO;
 import com.store.cart.dto.CartResponseDTO;
 
+import java.util.List;
+
 public interface CartService {
     // OBTENER EL CARRITO ACTUAL, O CREA UNO EN CASO QUE NO EXISTA
     CartResponseDTO getCart(String sessionId);
@@ -14,4 +17,16 @@ public interface CartService {
 
     // VACIAR CARRITO
     void clearCart(String sessionId);
+
+    // APLICAR VARIAS OPERACIONES (AGREGAR / FIJAR CANTIDAD / QUITAR) EN UNA SOLA TRANSACCION
+    CartResponseDTO applyBatch(String sessionId, List<CartBatchOperationDTO> operations);
+
+    // EMPEZAR UN CHECKOUT: GUARDAR EN LA BASE LOS CAMBIOS PENDIENTES Y NO ADMITIR OTROS HASTA TERMINARLO
+    void beginCheckout(String sessionId);
+
+    // TERMINAR UN CHECKOUT (CONFIRMADO O NO): EL CARRITO VUELVE A ADMITIR CAMBIOS
+    void endCheckout(String sessionId);
+
+    // OLVIDAR LA COPIA EN MEMORIA DE UN CARRITO YA BORRADO DE LA BASE
+    void evict(String sessionId);
 }
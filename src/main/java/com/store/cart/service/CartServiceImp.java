@@ -1,28 +1,46 @@
 package com.store.cart.service;
 
+import com.store.cart.dto.CartBatchOperationDTO;
+import com.store.cart.dto.CartItemResponseDTO;
 import com.store.cart.dto.CartResponseDTO;
 import com.store.cart.entity.CartEntity;
-import com.store.cart.entity.CartItemEntity;
 import com.store.cart.mapper.CartMapper;
+import com.store.cart.repository.CartBulkRepository;
+import com.store.cart.repository.CartItemRepository;
 import com.store.cart.repository.CartRepository;
 import com.store.exception.BusinessException;
 import com.store.exception.ResourceNotFoundException;
+import com.store.product.dto.ProductResponseDTO;
 import com.store.product.entity.ProductEntity;
 import com.store.product.repository.ProductRepository;
+import com.store.stock.StockReservations;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.Optional;
-
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * carritos persistidos directamente en la base en cada operación
+ * ({@code store.cart.storage=database}, el modo por defecto).
+ */
 @Service
+@ConditionalOnProperty(name = "store.cart.storage", havingValue = "database", matchIfMissing = true)
 @RequiredArgsConstructor
 @Transactional
 public class CartServiceImp implements CartService{
     private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartBulkRepository cartBulkRepository;
     private final ProductRepository productRepository;
     private final CartMapper cartMapper;
+    private final StockReservations stockReservations;
 
     /**
      * Obtiene el carrito asociado a una sesión.
@@ -42,57 +60,32 @@ public class CartServiceImp implements CartService{
      * <p>Comportamiento:
      * <ul>
      *   <li>Valida que la cantidad sea mayor a cero.</li>
-     *   <li>Valida la existencia del producto y stock disponible.</li>
-     *   <li>Si el producto ya existe en el carrito, incrementa su cantidad.</li>
-     *   <li>Si no existe, crea un nuevo ítem asociado al carrito.</li>
-     *   <li>Recalcula el total del carrito luego de la operación.</li>
+     *   <li>Crea el carrito de la sesión si todavía no existe.</li>
+     *   <li>Inserta el ítem o, si el producto ya está en el carrito, suma la cantidad,
+     *       en una sola sentencia que además verifica el stock.</li>
+     *   <li>El total del carrito lo recalcula la base (trigger sobre {@code cart_items}).</li>
+     *   <li>Reserva la nueva cantidad del producto ({@link StockReservations}); si el
+     *       stock libre no alcanza se hace rollback.</li>
      * </ul>
      * @param sessionId identificador de la sesión del usuario
      * @param productId identificador del producto
      * @param quantity cantidad a agregar
      * @return DTO del carrito actualizado
-     * @throws BusinessException si la cantidad es inválida o no hay stock suficiente
+     * @throws BusinessException si la cantidad es inválida, no hay stock suficiente o
+     *         está reservado en otros carritos
      * @throws ResourceNotFoundException si el producto no existe
      */
     @Override
     public CartResponseDTO addToCart(String sessionId, Long productId, Integer quantity) {
         if (quantity <= 0) throw new BusinessException("La cantidad debe ser mayor a 0");
-        ProductEntity product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
-
-        if (product.getStock() < quantity) throw new BusinessException("Sin stock suficiente");
-
-        CartEntity cart = getOrCreateCart(sessionId);
-
-        Optional<CartItemEntity> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst();
-
-        if (existingItem.isPresent()) {
-            // CASO A: Sumar cantidad
-            CartItemEntity item = existingItem.get();
-            int newQuantity = item.getQuantity() + quantity;
-
-            if (product.getStock() < newQuantity)
-                throw new BusinessException("Stock insuficiente para agregar más.");
-
-            item.setQuantity(newQuantity);
-        } else {
-            // CASO B: Crear nuevo item
-            CartItemEntity newItem = new CartItemEntity();
-            newItem.setCart(cart); // Vinculación bidireccional importante
-            newItem.setProduct(product);
-            newItem.setQuantity(quantity);
-            newItem.setUnitPrice(product.getPrice());
-
-            cart.getItems().add(newItem); // Agregamos a la lista del padre
-        }
 
-        recalculateTotal(cart);
+        cartRepository.insertIfAbsent(sessionId);
+        if (cartItemRepository.addItem(sessionId, productId, quantity) == 0)
+            throw addRejection(productId, quantity);
 
-        CartEntity savedCart = cartRepository.save(cart);
-
-        return cartMapper.entityToDto(savedCart);
+        CartResponseDTO cart = getCart(sessionId);
+        stockReservations.hold(sessionId, productId, quantityOf(cart, productId));
+        return cart;
     }
 
     /**
@@ -106,32 +99,74 @@ public class CartServiceImp implements CartService{
      */
     @Override
     public CartResponseDTO removeItemFromCart(String sessionId, Long productId) {
-        CartEntity cart = getOrCreateCart(sessionId);
-
-        // si cumple la condicion lo elimina de la bd y devuelve true
-        boolean removed = cart.getItems()
-                .removeIf(item -> item.getProduct().getId().equals(productId));
-
-        if (!removed)
+        if (cartItemRepository.deleteItem(sessionId, productId) == 0)
             throw new ResourceNotFoundException("El producto no esta en el carrito");
 
-        recalculateTotal(cart);
-        CartEntity savedCart = cartRepository.save(cart);
-
-        return cartMapper.entityToDto(savedCart);
+        stockReservations.release(sessionId, productId);
+        return getCart(sessionId);
     }
 
     /**
      * Vacía completamente el carrito asociado a una sesión.
-     * <p>El total del carrito se recalcula y se persiste el estado vacío.
      * @param sessionId identificador de la sesión del usuario
      */
     @Override
     public void clearCart(String sessionId) {
-        CartEntity cart = getOrCreateCart(sessionId);
-        cart.getItems().clear();
-        recalculateTotal(cart);
-        cartRepository.save(cart);
+        cartItemRepository.deleteAllItems(sessionId);
+        stockReservations.releaseAll(sessionId);
+    }
+
+    /**
+     * aplica un lote de operaciones sobre el carrito de la sesión en una sola transacción.
+     * <p>Los productos se leen con una sola consulta, las cantidades finales se
+     * resuelven en memoria ({@link CartBatch}) y se escriben con un upsert y un
+     * borrado para todo el lote. El carrito queda bloqueado mientras tanto, así
+     * que dos lotes sobre la misma sesión no se mezclan. Si una operación falla
+     * no se aplica ninguna (tampoco las reservas de stock).
+     * @param sessionId identificador de la sesión del usuario
+     * @param operations operaciones en el orden a aplicar
+     * @return DTO del carrito resultante
+     * @throws ResourceNotFoundException si se agrega o fija un producto que no existe
+     * @throws BusinessException si una cantidad es inválida o no alcanza el stock
+     */
+    @Override
+    public CartResponseDTO applyBatch(String sessionId, List<CartBatchOperationDTO> operations) {
+        Set<Long> productIds = CartBatch.referencedProductIds(operations);
+        Map<Long, ProductResponseDTO> products = productIds.isEmpty()
+                ? Map.of()
+                : CartBatch.byId(productRepository.findViewsByIdIn(productIds));
+
+        cartRepository.insertIfAbsent(sessionId);
+        Long cartId = cartBulkRepository.lockCart(sessionId);
+        Map<Long, Integer> changes = CartBatch.resolve(cartBulkRepository.findQuantities(cartId), operations, products);
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        List<Long> removed = new ArrayList<>();
+        changes.forEach((productId, quantity) -> {
+            if (quantity == 0) removed.add(productId);
+            else quantities.put(productId, quantity);
+        });
+
+        // el stock pudo cambiar desde la lectura: el upsert lo vuelve a verificar
+        if (!quantities.isEmpty() && cartBulkRepository.setQuantities(cartId, quantities) < quantities.size())
+            throw new BusinessException("Sin stock suficiente");
+        if (!removed.isEmpty()) cartBulkRepository.deleteProducts(cartId, removed);
+        stockReservations.holdAll(sessionId, changes);
+
+        return getCart(sessionId);
+    }
+
+    /** cada operación ya se escribe en la base: no hay nada pendiente. */
+    @Override
+    public void beginCheckout(String sessionId) {
+    }
+
+    @Override
+    public void endCheckout(String sessionId) {
+    }
+
+    @Override
+    public void evict(String sessionId) {
     }
 
             /*-------------METODOS PRIVADOS AUXILIARES ------------*/
@@ -151,26 +186,21 @@ public class CartServiceImp implements CartService{
                 });
     }
 
+    private static int quantityOf(CartResponseDTO cart, Long productId) {
+        return cart.getItems().stream()
+                .filter(item -> productId.equals(item.getProductId()))
+                .mapToInt(CartItemResponseDTO::getQuantity)
+                .findFirst()
+                .orElse(0);
+    }
+
     /**
-     * Recalcula el total del carrito a partir de los ítems actuales.
-     * <p>El total se obtiene multiplicando el precio unitario
-     * por la cantidad de cada ítem.
-     * @param cart carrito a recalcular
+     * motivo por el que no se pudo agregar el producto (solo se consulta si falló).
      */
-    private void recalculateTotal(CartEntity cart) {
-        BigDecimal total = cart.getItems()
-                .stream()
-                .map(item -> {
-                    BigDecimal unitPrice = item.getUnitPrice() != null
-                            ? item.getUnitPrice()
-                            : BigDecimal.ZERO;
-
-                    BigDecimal quantity = BigDecimal.valueOf(item.getQuantity());
-
-                    return unitPrice.multiply(quantity);
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        cart.setTotalAmount(total);
+    private RuntimeException addRejection(Long productId, int quantity) {
+        ProductEntity product = productRepository.findById(productId).orElse(null);
+        if (product == null) return new ResourceNotFoundException("Producto no encontrado");
+        if (product.getStock() < quantity) return new BusinessException("Sin stock suficiente");
+        return new BusinessException("Stock insuficiente para agregar más.");
     }
-}
\ No newline at end of file
+}
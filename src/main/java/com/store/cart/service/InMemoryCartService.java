@@ -0,0 +1,472 @@
+package com.store.cart.service;
+
+import com.store.cart.dto.CartBatchOperationDTO;
+import com.store.cart.dto.CartItemResponseDTO;
+import com.store.cart.dto.CartResponseDTO;
+import com.store.cart.entity.CartItemEntity;
+import com.store.cart.repository.CartBulkRepository;
+import com.store.cart.repository.CartBulkRepository.CartRow;
+import com.store.cart.repository.CartBulkRepository.ItemRow;
+import com.store.cart.repository.CartRepository;
+import com.store.exception.BusinessException;
+import com.store.exception.ResourceNotFoundException;
+import com.store.money.Money;
+import com.store.product.cache.ProductCatalogCache;
+import com.store.product.dto.ProductResponseDTO;
+import com.store.product.repository.ProductRepository;
+import com.store.stock.StockReservations;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * carritos en memoria con persistencia diferida (write-behind); se activa con
+ * {@code store.cart.storage=memory}.
+ * <p>Cada carrito vive en un mapa por {@code sessionId} y se modifica bajo uno de
+ * {@value #STRIPES} locks elegido por hash de la sesión: sesiones distintas casi
+ * nunca compiten. Si la sesión no está en memoria se recarga desde la base.
+ * <p>Las modificaciones solo marcan el carrito como pendiente; un hilo propio
+ * guarda cada {@code store.cart.memory.flush-interval} todos los pendientes en un
+ * único lote ({@link CartBulkRepository}), así que varios cambios seguidos sobre
+ * un carrito se escriben una sola vez. Los carritos sin cambios pendientes que no
+ * se usan durante {@code store.cart.memory.idle-ttl} se descartan de la memoria.
+ * <p>Durante un checkout ({@link #beginCheckout}) el carrito no admite cambios: si no,
+ * un cambio entre la orden y el {@link #evict} dejaría el carrito pendiente y el
+ * hilo de fondo lo volvería a crear en la base después de que la orden lo borró.
+ * <p>Los ítems no tienen ID propio en este modo ({@code id} nulo en la respuesta):
+ * se identifican por producto, igual que en los endpoints.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "store.cart.storage", havingValue = "memory")
+public class InMemoryCartService implements CartService {
+    private static final int STRIPES = 256;
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final CartRepository cartRepository;
+    private final CartBulkRepository cartBulkRepository;
+    private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
+    private final StockReservations stockReservations;
+    private final long idleTtlMillis;
+
+    private final Map<String, CartState> carts = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // sesiones con un checkout en curso; se marcan y consultan con el lock de la sesión
+    private final Set<String> checkingOut = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    // una sola escritura a la vez: un snapshot viejo nunca pisa a uno más nuevo
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+
+    public InMemoryCartService(CartRepository cartRepository,
+                               CartBulkRepository cartBulkRepository,
+                               ProductRepository productRepository,
+                               ProductCatalogCache catalogCache,
+                               TransactionTemplate transactionTemplate,
+                               StockReservations stockReservations,
+                               @Value("${store.cart.memory.flush-interval}") Duration flushInterval,
+                               @Value("${store.cart.memory.idle-ttl}") Duration idleTtl) {
+        this.cartRepository = cartRepository;
+        this.cartBulkRepository = cartBulkRepository;
+        this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = transactionTemplate;
+        this.stockReservations = stockReservations;
+        this.idleTtlMillis = idleTtl.toMillis();
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushPending,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CartResponseDTO getCart(String sessionId) {
+        if (sessionId == null) return emptyCart();
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            return toDto(loadCart(sessionId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @throws BusinessException si la cantidad es inválida o no hay stock suficiente
+     * @throws ResourceNotFoundException si el producto no existe
+     */
+    @Override
+    public CartResponseDTO addToCart(String sessionId, Long productId, Integer quantity) {
+        if (quantity <= 0) throw new BusinessException("La cantidad debe ser mayor a 0");
+        ProductResponseDTO product = catalogCache.getProduct(productId,
+                id -> productRepository.findViewById(id).orElse(null));
+        if (product == null) throw new ResourceNotFoundException("Producto no encontrado");
+
+        if (product.getStock() < quantity) throw new BusinessException("Sin stock suficiente");
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            requireNotCheckingOut(sessionId);
+            CartState cart = loadCart(sessionId);
+            CartItem existing = cart.items.get(productId);
+            if (existing != null) {
+                int newQuantity = existing.quantity() + quantity;
+                if (product.getStock() < newQuantity)
+                    throw new BusinessException("Stock insuficiente para agregar más.");
+                stockReservations.hold(sessionId, productId, newQuantity);
+                cart.items.put(productId, existing.withQuantity(newQuantity));
+            } else {
+                stockReservations.hold(sessionId, productId, quantity);
+                cart.items.put(productId,
+                        new CartItem(productId, product.getName(), quantity, Money.of(product.getPrice())));
+            }
+            markPending(cart);
+            return toDto(cart);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @throws ResourceNotFoundException si el producto no está presente en el carrito
+     */
+    @Override
+    public CartResponseDTO removeItemFromCart(String sessionId, Long productId) {
+        if (sessionId == null) throw new ResourceNotFoundException("El producto no esta en el carrito");
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            requireNotCheckingOut(sessionId);
+            CartState cart = loadCart(sessionId);
+            if (cart.items.remove(productId) == null)
+                throw new ResourceNotFoundException("El producto no esta en el carrito");
+            stockReservations.release(sessionId, productId);
+            markPending(cart);
+            return toDto(cart);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clearCart(String sessionId) {
+        if (sessionId == null) return;
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            requireNotCheckingOut(sessionId);
+            CartState cart = loadCart(sessionId);
+            cart.items.clear();
+            stockReservations.releaseAll(sessionId);
+            markPending(cart);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @throws ResourceNotFoundException si se agrega o fija un producto que no existe
+     * @throws BusinessException si una cantidad es inválida o no alcanza el stock
+     */
+    @Override
+    public CartResponseDTO applyBatch(String sessionId, List<CartBatchOperationDTO> operations) {
+        Set<Long> productIds = CartBatch.referencedProductIds(operations);
+        Map<Long, ProductResponseDTO> products = productIds.isEmpty()
+                ? Map.of()
+                : CartBatch.byId(productRepository.findViewsByIdIn(productIds));
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            requireNotCheckingOut(sessionId);
+            CartState cart = loadCart(sessionId);
+            Map<Long, Integer> current = new HashMap<>();
+            cart.items.forEach((productId, item) -> current.put(productId, item.quantity()));
+
+            Map<Long, Integer> changes = CartBatch.resolve(current, operations, products);
+            stockReservations.holdAll(sessionId, changes);
+            changes.forEach((productId, quantity) -> {
+                CartItem existing = cart.items.get(productId);
+                if (quantity == 0) {
+                    cart.items.remove(productId);
+                } else if (existing != null) {
+                    cart.items.put(productId, existing.withQuantity(quantity));
+                } else {
+                    ProductResponseDTO product = products.get(productId);
+                    cart.items.put(productId,
+                        new CartItem(productId, product.getName(), quantity, Money.of(product.getPrice())));
+                }
+            });
+            if (!changes.isEmpty()) markPending(cart);
+            return toDto(cart);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * bloquea los cambios del carrito hasta {@link #endCheckout} y guarda ya mismo
+     * los pendientes, para que la orden lea de la base el carrito que se confirma.
+     * @throws BusinessException si la sesión ya tiene un checkout en curso
+     */
+    @Override
+    public void beginCheckout(String sessionId) {
+        if (sessionId == null) return;
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            if (!checkingOut.add(sessionId))
+                throw new BusinessException("Ya hay un checkout en curso para esta sesión");
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flush(sessionId);
+        } catch (RuntimeException e) {
+            endCheckout(sessionId);
+            throw e;
+        }
+    }
+
+    @Override
+    public void endCheckout(String sessionId) {
+        if (sessionId == null) return;
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            checkingOut.remove(sessionId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** descarta la copia en memoria (y sus cambios pendientes) de un carrito ya borrado de la base. */
+    @Override
+    public void evict(String sessionId) {
+        if (sessionId == null) return;
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            carts.remove(sessionId);
+            pending.remove(sessionId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushPending();
+    }
+
+            /*-------------METODOS PRIVADOS AUXILIARES ------------*/
+
+    /** guarda ya mismo los cambios pendientes de la sesión, si los hay. */
+    private void flush(String sessionId) {
+        // con el lock tomado, una escritura en curso del hilo de fondo ya terminó
+        flushLock.lock();
+        try {
+            if (!pending.remove(sessionId)) return;
+            List<CartRow> rows = new ArrayList<>(1);
+            takeSnapshot(sessionId, rows);
+            save(rows);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * vuelca todos los carritos pendientes en lotes de {@value #FLUSH_BATCH_SIZE} y
+     * descarta de la memoria los que llevan {@code idle-ttl} sin usarse.
+     */
+    private void flushPending() {
+        flushLock.lock();
+        try {
+            List<CartRow> rows = new ArrayList<>();
+            for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+                String sessionId = it.next();
+                it.remove();
+                takeSnapshot(sessionId, rows);
+                if (rows.size() == FLUSH_BATCH_SIZE) {
+                    save(rows);
+                    rows = new ArrayList<>();
+                }
+            }
+            save(rows);
+            evictIdle();
+        } catch (RuntimeException e) {
+            // el hilo del scheduler no debe morir: se reintenta en el próximo ciclo
+            log.error("Error guardando carritos en segundo plano", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void takeSnapshot(String sessionId, List<CartRow> rows) {
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            CartState cart = carts.get(sessionId);
+            if (cart == null) return;
+            List<ItemRow> items = cart.items.values().stream()
+                    .map(item -> new ItemRow(item.productId(), item.quantity(), item.unitPrice().toBigDecimal()))
+                    .toList();
+            rows.add(new CartRow(sessionId, items));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void save(List<CartRow> rows) {
+        if (rows.isEmpty()) return;
+        try {
+            Map<String, Long> ids = transactionTemplate.execute(status -> cartBulkRepository.saveCarts(rows));
+            ids.forEach((sessionId, id) -> {
+                CartState cart = carts.get(sessionId);
+                if (cart != null) cart.id = id;
+            });
+        } catch (RuntimeException e) {
+            // vuelven a quedar pendientes, salvo que se hayan descartado mientras tanto
+            for (CartRow row : rows)
+                if (carts.containsKey(row.sessionId())) pending.add(row.sessionId());
+            throw e;
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtlMillis;
+        for (CartState cart : carts.values()) {
+            if (cart.touchedAt >= cutoff) continue;
+
+            ReentrantLock lock = lockFor(cart.sessionId);
+            lock.lock();
+            try {
+                if (cart.touchedAt < cutoff && !pending.contains(cart.sessionId))
+                    carts.remove(cart.sessionId, cart);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** carrito de la sesión desde memoria, la base o uno nuevo vacío; requiere el lock de la sesión. */
+    private CartState loadCart(String sessionId) {
+        CartState cart = carts.get(sessionId);
+        if (cart == null) {
+            cart = transactionTemplate.execute(status -> {
+                CartState loaded = new CartState(sessionId);
+                cartRepository.findBySessionId(sessionId).ifPresent(entity -> {
+                    loaded.id = entity.getId();
+                    for (CartItemEntity item : entity.getItems())
+                        loaded.items.put(item.getProduct().getId(), new CartItem(item.getProduct().getId(),
+                                item.getProduct().getName(), item.getQuantity(), Money.of(item.getUnitPrice())));
+                });
+                return loaded;
+            });
+            carts.put(sessionId, cart);
+        }
+        cart.touchedAt = System.currentTimeMillis();
+        return cart;
+    }
+
+    /** requiere el lock de la sesión. */
+    private void requireNotCheckingOut(String sessionId) {
+        if (checkingOut.contains(sessionId))
+            throw new BusinessException("El carrito se está confirmando, esperá a que termine el checkout");
+    }
+
+    private void markPending(CartState cart) {
+        pending.add(cart.sessionId);
+    }
+
+    private ReentrantLock lockFor(String sessionId) {
+        int h = sessionId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static CartResponseDTO toDto(CartState cart) {
+        List<CartItemResponseDTO> items = cart.items.values().stream()
+                .map(item -> CartItemResponseDTO.builder()
+                        .productId(item.productId())
+                        .productName(item.productName())
+                        .quantity(item.quantity())
+                        .unitPrice(item.unitPrice().toBigDecimal())
+                        .subtotal(item.subtotal().toBigDecimal())
+                        .build())
+                .toList();
+
+        return CartResponseDTO.builder()
+                .id(cart.id)
+                .sessionId(cart.sessionId)
+                .totalAmount(cart.total().toBigDecimal())
+                .totalItems(items.size())
+                .items(items)
+                .build();
+    }
+
+    private static CartResponseDTO emptyCart() {
+        return CartResponseDTO.builder().totalAmount(BigDecimal.ZERO).items(List.of()).build();
+    }
+
+    /** estado mutable de un carrito; se lee y modifica solo con el lock de su sesión. */
+    private static final class CartState {
+        final String sessionId;
+        final Map<Long, CartItem> items = new LinkedHashMap<>();
+        volatile Long id;
+        volatile long touchedAt;
+
+        CartState(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        Money total() {
+            Money total = Money.ZERO;
+            for (CartItem item : items.values()) total = total.plus(item.subtotal());
+            return total;
+        }
+    }
+
+    private record CartItem(Long productId, String productName, int quantity, Money unitPrice) {
+        CartItem withQuantity(int newQuantity) {
+            return new CartItem(productId, productName, newQuantity, unitPrice);
+        }
+
+        Money subtotal() {
+            return unitPrice.times(quantity);
+        }
+    }
+}
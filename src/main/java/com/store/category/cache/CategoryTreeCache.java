@@ -0,0 +1,111 @@
+package com.store.category.cache;
+
+import com.store.category.dto.CategoryResponseDTO;
+import com.store.category.dto.SubcategorySimpleDTO;
+import com.store.category.event.CategoryChangedEvent;
+import com.store.category.repository.CategoryRepository;
+import com.store.product.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * árbol de categorías en memoria para las lecturas del storefront.
+ * <p>El árbol cambia pocas veces al mes y se lee en cada carga de página: se
+ * arma con una sola consulta (proyección escalar, ver {@link CategoryTreeRow}),
+ * se serializa a JSON una vez y se publica como una {@link CategoryTreeSnapshot}
+ * inmutable. Las lecturas no van a la base ni toman locks.
+ * <p>Cada {@link CategoryChangedEvent} (luego del commit), y cada cambio de productos
+ * que puede mover los conteos por subcategoría, arma una foto nueva y la reemplaza
+ * de una vez, antes que el resto de los listeners (los ETags dependen de eso).
+ * Si la reconstrucción falla, la foto se descarta y el próximo pedido la reintenta.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeCache implements SmartInitializingSingleton {
+    private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile CategoryTreeSnapshot snapshot;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public CategoryTreeSnapshot get() {
+        CategoryTreeSnapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        snapshot = null;
+        rebuild();
+    }
+
+    /** los conteos de productos por subcategoría viajan en la foto. */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.affectsListings()) return;
+        snapshot = null;
+        rebuild();
+    }
+
+    // pedidos concurrentes sin foto: solo el primero va a la base
+    private synchronized CategoryTreeSnapshot load() {
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    private synchronized CategoryTreeSnapshot rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, List<CategoryTreeRow>> rowsByCategory = categoryRepository.findTreeRows().stream()
+                .collect(Collectors.groupingBy(CategoryTreeRow::categoryId, LinkedHashMap::new, Collectors.toList()));
+
+        List<CategoryResponseDTO> categories = rowsByCategory.values().stream().map(CategoryTreeCache::toResponse).toList();
+        Map<Long, CategoryResponseDTO> byId = categories.stream()
+                .collect(Collectors.toUnmodifiableMap(CategoryResponseDTO::getId, Function.identity()));
+
+        CategoryTreeSnapshot built = new CategoryTreeSnapshot(categories, byId, objectMapper.writeValueAsBytes(categories));
+        snapshot = built;
+        log.debug("Árbol de categorías reconstruido: {} categorías en {} ms", categories.size(), System.currentTimeMillis() - start);
+        return built;
+    }
+
+    private static CategoryResponseDTO toResponse(List<CategoryTreeRow> rows) {
+        CategoryTreeRow first = rows.getFirst();
+        List<SubcategorySimpleDTO> subcategories = rows.stream()
+                .filter(r -> r.subcategoryId() != null)
+                .map(r -> SubcategorySimpleDTO.builder()
+                        .id(r.subcategoryId())
+                        .name(r.subcategoryName())
+                        .description(r.subcategoryDescription())
+                        .productCount(r.productCount())
+                        .inStockCount(r.inStockCount())
+                        .build())
+                .toList();
+
+        return CategoryResponseDTO.builder()
+                .id(first.categoryId())
+                .name(first.categoryName())
+                .description(first.categoryDescription())
+                .productCount(subcategories.stream().mapToInt(SubcategorySimpleDTO::getProductCount).sum())
+                .inStockCount(subcategories.stream().mapToInt(SubcategorySimpleDTO::getInStockCount).sum())
+                .subcategories(subcategories)
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.store.category.cache;
+
+/**
+ * fila plana del árbol: una por subcategoría (o una sin subcategoría, si la
+ * categoría no tiene). Proyección escalar: lee los contadores de la base aunque
+ * las entidades ya estén en el contexto de persistencia del pedido.
+ */
+public record CategoryTreeRow(Long categoryId, String categoryName, String categoryDescription,
+                              Long subcategoryId, String subcategoryName, String subcategoryDescription,
+                              Integer productCount, Integer inStockCount) {
+}
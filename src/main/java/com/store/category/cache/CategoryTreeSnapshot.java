@@ -0,0 +1,27 @@
+package com.store.category.cache;
+
+import com.store.category.dto.CategoryResponseDTO;
+import com.store.category.dto.SubcategorySimpleDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * foto inmutable del árbol de categorías y subcategorías, ordenado por ID.
+ * <p>Los DTO se comparten entre todos los pedidos: no deben modificarse.
+ * @param categories categorías con sus subcategorías
+ * @param json {@code categories} ya serializado (cuerpo de {@code /categories} y {@code /categories/sub})
+ */
+public record CategoryTreeSnapshot(List<CategoryResponseDTO> categories,
+                                   Map<Long, CategoryResponseDTO> byId,
+                                   byte[] json) {
+
+    public Optional<CategoryResponseDTO> category(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public Optional<List<SubcategorySimpleDTO>> subcategories(Long categoryId) {
+        return category(categoryId).map(CategoryResponseDTO::getSubcategories);
+    }
+}
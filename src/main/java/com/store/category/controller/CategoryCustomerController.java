@@ -1,20 +1,28 @@
 package com.store.category.controller;
 
+import com.store.category.cache.CategoryTreeCache;
 import com.store.category.dto.CategoryResponseDTO;
 import com.store.category.service.CategoryService;
+import com.store.etag.ResourceVersions;
+import com.store.querycount.QueryBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/categories")
@@ -22,20 +30,32 @@ import java.util.List;
 @Tag(name = "Categories", description = "Operaciones de gestion de categorías visibles para clientes")
 public class CategoryCustomerController {
     private final CategoryService categoryService;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ResourceVersions resourceVersions;
 
     @Operation(summary = "Listar categorías", description = "Devuelve todas las categorías disponibles")
-    @ApiResponses({@ApiResponse(responseCode = "200", description = "Categorías obtenidas correctamente")})
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Categorías obtenidas correctamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = CategoryResponseDTO.class)))),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado en If-None-Match")})
+    @QueryBudget(1)
     @GetMapping
-    public ResponseEntity<List<CategoryResponseDTO>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.listCategories());
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
+        return categoryTree(request);
     }
 
     @Operation(summary = "Listar categorías con subcategorías",
             description = "Devuelve todas las categorías junto con sus subcategorías")
-    @ApiResponses({@ApiResponse(responseCode = "200", description = "Categorías con subcategorías obtenidas correctamente")})
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Categorías con subcategorías obtenidas correctamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = CategoryResponseDTO.class)))),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado en If-None-Match")})
+    @QueryBudget(1)
     @GetMapping("/sub")
-    public ResponseEntity<List<CategoryResponseDTO>> getAllCategoriesWithSub() {
-        return ResponseEntity.ok(categoryService.listCategoriesWithSubcategories());
+    public ResponseEntity<byte[]> getAllCategoriesWithSub(WebRequest request) {
+        return categoryTree(request);
     }
 
 
@@ -43,12 +63,24 @@ public class CategoryCustomerController {
     @Operation(summary = "Obtener categoría por ID", description = "Devuelve una categoría específica según su ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Categoría obtenida correctamente"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado en If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Categoría no encontrada")
     })
+    @QueryBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponseDTO> getCategoryById(
             @Parameter(description = "ID de la categoría", example = "1")
-            @PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.listCategoryById(id));
+            @PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(resourceVersions.categories())) return null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categoryService.listCategoryById(id));
+    }
+
+    // árbol ya serializado: sin base ni Jackson por pedido
+    private ResponseEntity<byte[]> categoryTree(WebRequest request) {
+        if (request.checkNotModified(resourceVersions.categories())) return null;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .body(categoryTreeCache.get().json());
     }
 }
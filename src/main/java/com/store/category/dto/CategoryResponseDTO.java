@@ -12,6 +12,9 @@ public class CategoryResponseDTO {
     private Long id;
     private String name;
     private String description;
+    // suma de las subcategorías
+    private int productCount;
+    private int inStockCount;
     private List<SubcategorySimpleDTO> subcategories;
 }
 
@@ -13,4 +13,6 @@ public class SubcategorySimpleDTO {
     private Long id;
     private String name;
     private String description;
+    private int productCount;
+    private int inStockCount;
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.store.category.entity;
 import com.store.product.entity.ProductEntity;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +24,15 @@ public class SubcategoryEntity {
     @JoinColumn(name = "category_id")
     private CategoryEntity category;
 
+    // contadores mantenidos por triggers de la base (db/sql/06_subcategory_product_counts.sql)
+    @ColumnDefault("0")
+    @Column(name = "product_count", nullable = false, insertable = false, updatable = false)
+    private int productCount;
+
+    @ColumnDefault("0")
+    @Column(name = "in_stock_count", nullable = false, insertable = false, updatable = false)
+    private int inStockCount;
+
     // UNA subcategoría tiene MUCHOS productos
     @OneToMany(mappedBy = "subcategory")
     private List<ProductEntity> products = new ArrayList<>();
@@ -0,0 +1,10 @@
+package com.store.category.event;
+
+/**
+ * alta, edición o baja de una categoría o de una de sus subcategorías.
+ * <p>Se publica dentro de la transacción; los listeners con
+ * {@code @TransactionalEventListener} lo reciben luego del commit.
+ * @param categoryId categoría afectada (la padre, si el cambio fue en una subcategoría)
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
@@ -26,6 +26,8 @@ public class CategoryMapper {
                 .id(entity.getId())
                 .name(entity.getName())
                 .description(entity.getDescription())
+                .productCount(subcategoriesDto.stream().mapToInt(SubcategorySimpleDTO::getProductCount).sum())
+                .inStockCount(subcategoriesDto.stream().mapToInt(SubcategorySimpleDTO::getInStockCount).sum())
                 .subcategories(subcategoriesDto)
                 .build();
     }
@@ -52,6 +54,8 @@ public class CategoryMapper {
                 .id(entity.getId())
                 .name(entity.getName())
                 .description(entity.getDescription())
+                .productCount(entity.getProductCount())
+                .inStockCount(entity.getInStockCount())
                 .build();
     }
 
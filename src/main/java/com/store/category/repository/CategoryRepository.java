@@ -1,5 +1,6 @@
 package com.store.category.repository;
 
+import com.store.category.cache.CategoryTreeRow;
 import com.store.category.entity.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -10,4 +11,13 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity,Long> {
     @Query("SELECT c FROM CategoryEntity c LEFT JOIN FETCH c.subcategories")
     List<CategoryEntity> findAllWithSubcategories();
     boolean existsByName(String name);
+
+    // árbol completo en una consulta, ordenado, para CategoryTreeCache
+    @Query("""
+            SELECT new com.store.category.cache.CategoryTreeRow(c.id, c.name, c.description,
+                   s.id, s.name, s.description, s.productCount, s.inStockCount)
+            FROM CategoryEntity c LEFT JOIN c.subcategories s
+            ORDER BY c.id, s.id
+            """)
+    List<CategoryTreeRow> findTreeRows();
 }
@@ -1,8 +1,10 @@
 package com.store.category.service;
 
+import com.store.category.cache.CategoryTreeCache;
 import com.store.category.dto.*;
 import com.store.category.entity.CategoryEntity;
 import com.store.category.entity.SubcategoryEntity;
+import com.store.category.event.CategoryChangedEvent;
 import com.store.category.mapper.CategoryMapper;
 import com.store.category.repository.CategoryRepository;
 import com.store.category.repository.SubcategoryRepository;
@@ -11,11 +13,11 @@ import com.store.exception.ResourceNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +25,8 @@ public class CategoryServiceImp implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final SubcategoryRepository subcategoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryTreeCache categoryTreeCache;
 
                                      //-----CATEGORIAS------
     /**
@@ -35,6 +39,7 @@ public class CategoryServiceImp implements CategoryService {
     public CategoryResponseDTO createCategory(CategoryRequestDTO request) {
         CategoryEntity entity = categoryMapper.toCategoryEntity(request);
         CategoryEntity savedEntity = categoryRepository.save(entity);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedEntity.getId()));
         return categoryMapper.toCategoryResponse(savedEntity);
     }
 
@@ -63,6 +68,7 @@ public class CategoryServiceImp implements CategoryService {
             throw new BusinessException("La categoría ya existe");
 
         categoryMapper.updateCategoryFromDto(request, category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
 
         return categoryMapper.toCategoryResponse(category);
     }
@@ -85,38 +91,31 @@ public class CategoryServiceImp implements CategoryService {
             throw new BusinessException("No se puede eliminar una categoría con subcategorías asociadas");
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     /**
-     * Retorna todas las categorías disponibles.
+     * Retorna todas las categorías disponibles, desde el árbol en memoria.
      * @return lista de categorías
      */
     @Override
-    @Transactional(readOnly = true)
     public List<CategoryResponseDTO> listCategories() {
-        return categoryRepository.findAll().stream()
-                .map(categoryMapper::toCategoryResponse)
-                .collect(Collectors.toList());
+        return categoryTreeCache.get().categories();
     }
 
     /**
      * Retorna todas las categorías junto con sus subcategorías asociadas.
-     * <p>Utiliza una consulta optimizada para evitar problemas de N+1.
+     * <p>Se sirve desde el árbol en memoria ({@link CategoryTreeCache}), sin ir a la base.
      * @return lista de categorías con subcategorías
      */
     @Override
-    @Transactional(readOnly = true)
     public List<CategoryResponseDTO> listCategoriesWithSubcategories() {
-        return categoryRepository.findAllWithSubcategories().stream()
-                .map(categoryMapper::toCategoryResponse)
-                .toList();
+        return categoryTreeCache.get().categories();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public CategoryResponseDTO listCategoryById(Long id) {
-        return categoryRepository.findById(id)
-                .map(categoryMapper::toCategoryResponse)
+        return categoryTreeCache.get().category(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada ID: " + id));
     }
 
@@ -140,6 +139,7 @@ public class CategoryServiceImp implements CategoryService {
         parent.getSubcategories().add(sub);
 
         SubcategoryEntity saved = subcategoryRepository.save(sub);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
         return categoryMapper.toSubcategorySimpleDto(saved);
     }
 
@@ -150,15 +150,9 @@ public class CategoryServiceImp implements CategoryService {
      * @throws ResourceNotFoundException si la categoría no existe
      */
     @Override
-    @Transactional(readOnly = true)
     public List<SubcategorySimpleDTO> listSubcategoriesByCategoryId(Long categoryId) {
-        if(!categoryRepository.existsById(categoryId))
-            throw new ResourceNotFoundException("La categoría ID " + categoryId + " no existe");
-
-        return subcategoryRepository.findByCategory_Id(categoryId)
-                .stream()
-                .map(categoryMapper::toSubcategorySimpleDto)
-                .toList();
+        return categoryTreeCache.get().subcategories(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("La categoría ID " + categoryId + " no existe"));
     }
 
     /**
@@ -187,6 +181,7 @@ public class CategoryServiceImp implements CategoryService {
 
 
         categoryMapper.updateSubcategoryFromDto(request, subcategory);
+        eventPublisher.publishEvent(new CategoryChangedEvent(subcategory.getCategory().getId()));
 
         return categoryMapper.toSubcategorySimpleDto(subcategory);
     }
@@ -205,12 +200,13 @@ public class CategoryServiceImp implements CategoryService {
         SubcategoryEntity sub = subcategoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Subcategoría no encontrada ID: " + id));
 
-        if (!sub.getProducts().isEmpty())
+        if (sub.getProductCount() > 0)
             throw new BusinessException("La subcategoría tiene productos asociados y no puede eliminarse");
 
         CategoryEntity parent = sub.getCategory();
         parent.getSubcategories().remove(sub);
 
         subcategoryRepository.delete(sub);
+        eventPublisher.publishEvent(new CategoryChangedEvent(parent.getId()));
     }
 }
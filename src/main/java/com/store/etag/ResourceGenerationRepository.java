@@ -0,0 +1,38 @@
+package com.store.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * generaciones compartidas entre instancias ({@code db/sql/08_resource_generations.sql}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ResourceGenerationRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<String, Long> findAll() {
+        Map<String, Long> generations = new HashMap<>();
+        jdbcTemplate.query("SELECT name, generation FROM resource_generations",
+                rs -> { generations.put(rs.getString(1), rs.getLong(2)); });
+        return generations;
+    }
+
+    /**
+     * suma uno a la generación, en su propia transacción: se llama desde listeners
+     * posteriores al commit, cuando la transacción del cambio ya no escribe.
+     * @return la generación nueva
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long increment(String name) {
+        return jdbcTemplate.queryForObject(
+                "UPDATE resource_generations SET generation = generation + 1 WHERE name = ? RETURNING generation",
+                Long.class, name);
+    }
+}
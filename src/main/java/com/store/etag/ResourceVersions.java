@@ -0,0 +1,164 @@
+package com.store.etag;
+
+import com.store.category.event.CategoryChangedEvent;
+import com.store.product.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * versiones de productos y categorías para los ETags de las respuestas públicas
+ * ({@code If-None-Match} → 304 sin ir a la base ni serializar).
+ * <p>Las versiones salen de generaciones compartidas en la base
+ * ({@link ResourceGenerationRepository}): cada escritura confirmada suma uno a la
+ * de productos o a la de categorías y toma ese número como versión del catálogo,
+ * del producto afectado o del árbol (los conteos por subcategoría, solo con cambios
+ * que afectan listados). Cada {@code store.etag.sync-interval} se releen: si otra
+ * instancia escribió, se invalidan las cachés locales (como una importación masiva
+ * o un cambio de categorías) y todos los ETags afectados cambian. Así una instancia
+ * que no vio la escritura sirve datos viejos como mucho ese intervalo.
+ * <p>Si la base no responde al arrancar o al contar una escritura, los ETags pasan a
+ * llevar un prefijo propio de la instancia: dejan de coincidir con los de las demás,
+ * pero nunca confirman con un 304 un contenido que cambió.
+ * <p>Los listeners corren últimos ({@link Ordered#LOWEST_PRECEDENCE}): primero se
+ * invalidan las cachés y recién después cambia el ETag, así nunca se sirve un
+ * contenido viejo con un ETag nuevo. El ETag se calcula antes de leer los datos;
+ * si una escritura entra en el medio, el cliente recibe datos nuevos con el ETag
+ * anterior y en el próximo pedido los vuelve a bajar.
+ */
+@Slf4j
+@Component
+public class ResourceVersions implements SmartInitializingSingleton {
+    private static final String PRODUCTS = "products";
+    private static final String CATEGORIES = "categories";
+    // eventos que publica la sincronización: ya están contados en la base
+    private static final ThreadLocal<Boolean> APPLYING_REMOTE = ThreadLocal.withInitial(() -> false);
+
+    private final ResourceGenerationRepository generations;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+    private volatile String epoch = localEpoch();
+    private volatile long catalogVersion;
+    // versión mínima de cada producto: otra instancia cambió productos sin decir cuáles
+    private volatile long productFloor;
+    private volatile long categoryVersion;
+    private volatile long categoryCountsVersion;
+
+    public ResourceVersions(ResourceGenerationRepository generations, ApplicationEventPublisher eventPublisher) {
+        this.generations = generations;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** detalle de producto: incluye el nombre de su subcategoría y categoría. */
+    public String product(Long id) {
+        long version = Math.max(productVersions.getOrDefault(id, 0L), productFloor);
+        return epoch + "-p" + version + "-c" + categoryVersion;
+    }
+
+    /** listados del catálogo: cambian con cualquier producto. */
+    public String catalog() {
+        return epoch + "-p" + catalogVersion + "-c" + categoryVersion;
+    }
+
+    /** árbol de categorías: nombres más los conteos de productos por subcategoría. */
+    public String categories() {
+        return epoch + "-c" + categoryVersion + "-n" + categoryCountsVersion;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Map<String, Long> current = generations.findAll();
+            synchronized (this) {
+                long products = current.getOrDefault(PRODUCTS, 0L);
+                catalogVersion = productFloor = categoryCountsVersion = products;
+                categoryVersion = current.getOrDefault(CATEGORIES, 0L);
+                epoch = "g";
+            }
+        } catch (RuntimeException e) {
+            log.warn("Sin generaciones compartidas (db/sql/08_resource_generations.sql): ETags propios de la instancia", e);
+        }
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (APPLYING_REMOTE.get()) return;
+        long next = increment(PRODUCTS, catalogVersion);
+        synchronized (this) {
+            for (Long id : event.productIds()) productVersions.merge(id, next, Math::max);
+            catalogVersion = Math.max(catalogVersion, next);
+            if (event.affectsListings()) categoryCountsVersion = Math.max(categoryCountsVersion, next);
+        }
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (APPLYING_REMOTE.get()) return;
+        long next = increment(CATEGORIES, categoryVersion);
+        synchronized (this) {
+            categoryVersion = Math.max(categoryVersion, next);
+        }
+    }
+
+    /** aplica las escrituras de otras instancias: primero las cachés, después los ETags. */
+    @Scheduled(initialDelayString = "${store.etag.sync-interval}", fixedDelayString = "${store.etag.sync-interval}")
+    public void sync() {
+        Map<String, Long> current;
+        try {
+            current = generations.findAll();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron leer las generaciones compartidas", e);
+            return;
+        }
+        long products = current.getOrDefault(PRODUCTS, 0L);
+        long categories = current.getOrDefault(CATEGORIES, 0L);
+        boolean productsChanged = products > catalogVersion;
+        boolean categoriesChanged = categories > categoryVersion;
+        if (!productsChanged && !categoriesChanged) return;
+
+        APPLYING_REMOTE.set(true);
+        try {
+            if (categoriesChanged) eventPublisher.publishEvent(new CategoryChangedEvent(null));
+            if (productsChanged) eventPublisher.publishEvent(ProductChangedEvent.bulkImported());
+        } finally {
+            APPLYING_REMOTE.remove();
+        }
+
+        synchronized (this) {
+            if (productsChanged) {
+                productFloor = Math.max(productFloor, products);
+                catalogVersion = Math.max(catalogVersion, products);
+                categoryCountsVersion = Math.max(categoryCountsVersion, products);
+            }
+            if (categoriesChanged) categoryVersion = Math.max(categoryVersion, categories);
+        }
+    }
+
+            /*-------------METODOS PRIVADOS AUXILIARES ------------*/
+
+    /** nueva generación compartida, o una local (con prefijo propio) si la base no responde. */
+    private long increment(String name, long localVersion) {
+        try {
+            return generations.increment(name);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo contar la escritura de {} en la base: ETags propios de la instancia", name, e);
+            epoch = localEpoch();
+            return localVersion + 1;
+        }
+    }
+
+    private static String localEpoch() {
+        return Long.toString(System.nanoTime(), 36) + Long.toString(System.currentTimeMillis(), 36);
+    }
+}
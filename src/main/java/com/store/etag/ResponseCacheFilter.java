@@ -0,0 +1,138 @@
+package com.store.etag;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * caché de respuestas ya serializadas para las lecturas más pedidas del storefront
+ * (catálogo y categorías).
+ * <p>Guarda los bytes JSON finales y su versión gzip, por ruta y query normalizada
+ * (parámetros ordenados). Un hit no pasa por el controller ni por Jackson: es una
+ * copia de memoria, comprimida de antemano si el cliente acepta gzip.
+ * <p>Cada entrada queda asociada al ETag con que se generó; solo se sirve mientras
+ * coincida con el actual de {@link ResourceVersions}, así que las escrituras de
+ * productos y categorías la invalidan sin listeners propios.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    private final Map<String, Supplier<String>> versionsByPath;
+    private final Cache<String, CachedResponse> responses;
+
+    public ResponseCacheFilter(ResourceVersions resourceVersions, MeterRegistry meterRegistry,
+                               @Value("${store.cache.responses.max-memory}") DataSize maxMemory) {
+        this.versionsByPath = Map.of(
+                "/products/catalog", resourceVersions::catalog,
+                "/products/catalog/slice", resourceVersions::catalog,
+                "/categories", resourceVersions::categories,
+                "/categories/sub", resourceVersions::categories);
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((String key, CachedResponse value) -> value.json().length + value.gzip().length)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "responses");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !versionsByPath.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String version = versionsByPath.get(request.getRequestURI()).get();
+        String key = cacheKey(request);
+
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null && cached.etag().equals('"' + version + '"')) {
+            if (new ServletWebRequest(request, response).checkNotModified(version)) return;
+            write(cached, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        String etag = wrapper.getHeader(HttpHeaders.ETAG);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || etag == null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] json = wrapper.getContentAsByteArray();
+        CachedResponse entry = new CachedResponse(etag, wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.CACHE_CONTROL), json, gzip(json));
+        responses.put(key, entry);
+        // el wrapper no escribe nada hasta copyBodyToResponse: se descarta y se responde desde la entrada
+        write(entry, request, response);
+    }
+
+    private static void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] body = gzip ? cached.gzip() : cached.json();
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        if (cached.cacheControl() != null) response.setHeader(HttpHeaders.CACHE_CONTROL, cached.cacheControl());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /** ruta + parámetros ordenados: {@code ?size=10&page=0} y {@code ?page=0&size=10} comparten entrada. */
+    private static String cacheKey(HttpServletRequest request) {
+        StringJoiner key = new StringJoiner("&", request.getRequestURI() + "?", "");
+        new TreeMap<>(request.getParameterMap())
+                .forEach((name, values) -> key.add(name + "=" + Arrays.toString(values)));
+        return key.toString();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip"))
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    private record CachedResponse(String etag, String contentType, String cacheControl, byte[] json, byte[] gzip) {}
+}
@@ -1,6 +1,7 @@
 package com.store.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -86,6 +87,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
     }
 
+    // carga: 503/429 con Retry-After (y el lugar en la cola, si llegó a encolarse)
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceBusy(ServiceBusyException e) {
+        Map<String, Object> body = new HashMap<>(Map.of(
+                "timestamp", LocalDateTime.now(),
+                "message", e.getMessage(),
+                "success", false,
+                "status", e.getStatus().value(),
+                "retryAfterSeconds", e.getRetryAfterSeconds()
+        ));
+        if (e.getQueuePosition() > 0) body.put("queuePosition", e.getQueuePosition());
+
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGlobalException(Exception e) {
 
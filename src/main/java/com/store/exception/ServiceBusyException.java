@@ -0,0 +1,28 @@
+package com.store.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * el pedido no se atendió por carga: se responde con {@code Retry-After}.
+ * <p>{@code 503} si el servidor está saturado, {@code 429} si el mismo cliente
+ * ya tiene un pedido igual en curso.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+    // lugar que ocupaba en la cola al ser rechazado (0 si no llegó a encolarse)
+    private final int queuePosition;
+
+    public ServiceBusyException(String message, HttpStatus status, long retryAfterSeconds, int queuePosition) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queuePosition = queuePosition;
+    }
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        this(message, HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds, 0);
+    }
+}
@@ -0,0 +1,86 @@
+package com.store.export;
+
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * escribe registros de una exportación directo sobre la respuesta, uno por línea.
+ * <p>No acumula nada: cada registro se serializa y pasa al buffer de salida, por lo
+ * que la memoria usada no depende de la cantidad de filas. En CSV los campos con
+ * comas, comillas o saltos de línea van entre comillas dobles con {@code ""} como
+ * escape (el mismo formato que lee la importación).
+ */
+public final class ExportWriter implements AutoCloseable {
+    private final Writer writer;
+    private final ExportFormat format;
+    private final ObjectMapper objectMapper;
+    private long records;
+
+    public ExportWriter(OutputStream out, ExportFormat format, ObjectMapper objectMapper) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    public ExportFormat format() {
+        return format;
+    }
+
+    /** línea NDJSON con el objeto serializado. */
+    public void json(Object value) {
+        line(objectMapper.writeValueAsString(value));
+        records++;
+    }
+
+    /** encabezado CSV (no cuenta como registro). */
+    public void header(String... columns) {
+        line(String.join(",", columns));
+    }
+
+    /** fila CSV; {@code null} se escribe como campo vacío. */
+    public void csv(Object... values) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) row.append(',');
+            if (values[i] != null) row.append(escape(values[i].toString()));
+        }
+        line(row.toString());
+        records++;
+    }
+
+    public long records() {
+        return records;
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void line(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            // el cliente cortó la descarga: corta también el cursor
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escape(String value) {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,71 @@
+package com.store.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * importe en centavos ({@code long}) y moneda, para calcular precios, subtotales y totales.
+ * <p>Sumar y multiplicar por cantidades es aritmética de {@code long}: exacta y sin las
+ * cadenas de {@link BigDecimal} intermedias. Un desborde lanza {@link ArithmeticException}
+ * en lugar de dar un resultado incorrecto.
+ * <p>{@link BigDecimal} queda solo en los bordes (columnas {@code NUMERIC(…, 2)} y JSON):
+ * {@link #of(BigDecimal)} al entrar y {@link #toBigDecimal()} al salir. Un importe con
+ * más de dos decimales se redondea al centavo con {@link RoundingMode#HALF_UP}.
+ */
+public record Money(long cents, Currency currency) implements Comparable<Money> {
+    /** moneda de la tienda: los precios no guardan moneda propia. */
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("ARS");
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    private static final int SCALE = 2;
+
+    public Money {
+        if (currency == null) throw new IllegalArgumentException("se requiere la moneda");
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * @param amount importe en la moneda de la tienda; {@code null} cuenta como cero
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) return ZERO;
+        return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(cents, other.cents), currency);
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(cents, quantity), currency);
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return currency.getCurrencyCode() + " " + toBigDecimal().toPlainString();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency))
+            throw new IllegalArgumentException("monedas distintas: " + currency + " y " + other.currency);
+    }
+}
@@ -0,0 +1,150 @@
+package com.store.order.admission;
+
+import com.store.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * control de admisión de checkouts ({@code POST /orders}), tipo sala de espera;
+ * se activa con {@code store.checkout.admission.enabled=true}.
+ * <p>Como mucho {@code max-concurrent} checkouts corren a la vez (conviene dejarlo
+ * por debajo del pool de Hikari, así el catálogo siempre tiene conexiones). Los
+ * demás esperan en una cola justa (por orden de llegada) de hasta {@code max-queue}
+ * pedidos, cada uno hasta {@code max-wait}; esperan antes de tocar la base, sin
+ * retener conexión. Si la cola está llena o se vence la espera se responde
+ * {@code 503} con {@code Retry-After} estimado según el lugar en la cola y la
+ * duración media de un checkout. Un segundo checkout de la misma sesión mientras
+ * el primero sigue en curso recibe {@code 429}.
+ * <p>Métricas: {@code store.checkout.admission.queue} (en espera),
+ * {@code store.checkout.admission.active}, {@code store.checkout.admission.admitted},
+ * {@code store.checkout.admission.rejected} (por {@code reason}) y
+ * {@code store.checkout.admission.wait}.
+ */
+@Component
+public class CheckoutAdmission {
+    // peso de cada checkout nuevo en la duración media
+    private static final double SERVICE_TIME_WEIGHT = 0.2;
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    // duración media de un checkout (solo para estimar la espera: una carrera al actualizarla no importa)
+    private volatile double avgServiceSeconds = 0.1;
+
+    private final Counter admitted;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Counter rejectedDuplicate;
+    private final Timer waitTimer;
+
+    public CheckoutAdmission(MeterRegistry meterRegistry,
+                             @Value("${store.checkout.admission.enabled}") boolean enabled,
+                             @Value("${store.checkout.admission.max-concurrent}") int maxConcurrent,
+                             @Value("${store.checkout.admission.max-queue}") int maxQueue,
+                             @Value("${store.checkout.admission.max-wait}") Duration maxWait) {
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+
+        Gauge.builder("store.checkout.admission.queue", waiting, AtomicInteger::get)
+                .description("checkouts esperando turno").register(meterRegistry);
+        Gauge.builder("store.checkout.admission.active", this, a -> a.maxConcurrent - a.permits.availablePermits())
+                .description("checkouts en curso").register(meterRegistry);
+        this.admitted = Counter.builder("store.checkout.admission.admitted")
+                .description("checkouts admitidos").register(meterRegistry);
+        this.rejectedQueueFull = rejected(meterRegistry, "queue-full");
+        this.rejectedTimeout = rejected(meterRegistry, "timeout");
+        this.rejectedDuplicate = rejected(meterRegistry, "duplicate");
+        this.waitTimer = Timer.builder("store.checkout.admission.wait")
+                .description("espera en la cola hasta ser admitido").register(meterRegistry);
+    }
+
+    /**
+     * corre el checkout cuando hay turno.
+     * @param sessionId sesión del carrito (un checkout a la vez por sesión)
+     * @throws ServiceBusyException 503 si no hubo turno a tiempo, 429 si la sesión ya tiene uno en curso
+     */
+    public <T> T admit(String sessionId, Supplier<T> checkout) {
+        if (!enabled) return checkout.get();
+
+        if (sessionId != null && !inFlight.add(sessionId)) {
+            rejectedDuplicate.increment();
+            throw new ServiceBusyException("Ya hay un checkout en curso para esta sesión",
+                    HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(0), 0);
+        }
+        try {
+            acquire();
+            long start = System.nanoTime();
+            try {
+                return checkout.get();
+            } finally {
+                permits.release();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                avgServiceSeconds += SERVICE_TIME_WEIGHT * (seconds - avgServiceSeconds);
+            }
+        } finally {
+            if (sessionId != null) inFlight.remove(sessionId);
+        }
+    }
+
+            /*-------------METODOS PRIVADOS AUXILIARES ------------*/
+
+    private void acquire() {
+        int position = waiting.incrementAndGet();
+        try {
+            if (position > maxQueue) {
+                rejectedQueueFull.increment();
+                throw busy(position);
+            }
+            long start = System.nanoTime();
+            // con timeout respeta el orden de llegada (tryAcquire() sin tiempo se cuela)
+            if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejectedTimeout.increment();
+                throw busy(position);
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            admitted.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy(position);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private ServiceBusyException busy(int position) {
+        return new ServiceBusyException("Hay muchos checkouts en curso, volvé a intentar en unos segundos",
+                HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds(position), position);
+    }
+
+    /** lo que tardarían en salir los {@code position} pedidos de adelante, redondeado a segundos. */
+    private long retryAfterSeconds(int position) {
+        double seconds = avgServiceSeconds * Math.max(position, 1) / maxConcurrent;
+        return Math.max(1, (long) Math.ceil(seconds));
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("store.checkout.admission.rejected")
+                .tag("reason", reason)
+                .description("checkouts rechazados sin llegar a la base").register(meterRegistry);
+    }
+}
@@ -1,16 +1,23 @@
 package com.store.order.controller;
 
+import com.store.exception.BusinessException;
+import com.store.export.ExportFormat;
 import com.store.order.dto.OrderResponseDTO;
 import com.store.order.entity.OrderStatus;
 import com.store.order.service.OrderService;
+import com.store.pagination.CursorPageDTO;
+import com.store.pagination.TotalMode;
+import com.store.querycount.QueryBudget;
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 
@@ -21,30 +28,71 @@ import java.time.LocalDateTime;
 public class OrderAdminController {
     private final OrderService orderService;
 
+    // ?total=EXACT (default) | CACHED | ESTIMATED -> ver TotalMode
+    @QueryBudget(4)
     @GetMapping
     public ResponseEntity<Page<OrderResponseDTO>> getAllOrders(
-            @PageableDefault(size = 10, sort = "createdAt") Pageable pageable) {
-        return ResponseEntity.ok(orderService.getAllOrders(pageable));
+            @PageableDefault(size = 10, sort = "createdAt") Pageable pageable,
+            @RequestParam(defaultValue = "EXACT") TotalMode total) {
+        return ResponseEntity.ok(orderService.getAllOrders(pageable, total));
     }
 
+    // scroll por cursor ordenado por (createdAt, id): sin OFFSET ni COUNT
+    @QueryBudget(3)
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<OrderResponseDTO>> scrollOrders(@RequestParam(required = false) String cursor,
+                                                                        @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(orderService.scrollOrders(cursor, size));
+    }
+
+    @QueryBudget(3)
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.getOrderById(id));
     }
 
+    @QueryBudget(4)
     @GetMapping("/status")
     public ResponseEntity<Page<OrderResponseDTO>> getOrdersByStatus(@RequestParam OrderStatus status,
-                                                                    @PageableDefault(size = 10, sort = "createdAt") Pageable pageable) {
-        return ResponseEntity.ok(orderService.filterOrdersByStatus(status, pageable));
+                                                                    @PageableDefault(size = 10, sort = "createdAt") Pageable pageable,
+                                                                    @RequestParam(defaultValue = "EXACT") TotalMode total) {
+        return ResponseEntity.ok(orderService.filterOrdersByStatus(status, pageable, total));
+    }
+
+    @QueryBudget(3)
+    @GetMapping("/status/cursor")
+    public ResponseEntity<CursorPageDTO<OrderResponseDTO>> scrollOrdersByStatus(@RequestParam OrderStatus status,
+                                                                                @RequestParam(required = false) String cursor,
+                                                                                @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(orderService.scrollOrdersByStatus(status, cursor, size));
     }
 
     // Eejemlo: /ADMIN/orders/report?start=2025-11-01T00:00:00&end=2025-11-30T23:59:59
+    @QueryBudget(4)
     @GetMapping("/report")
     public ResponseEntity<Page<OrderResponseDTO>> getOrdersByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
-            @PageableDefault(size = 10, sort = "createdAt") Pageable pageable) {
-        return ResponseEntity.ok(orderService.findByCreatedAtBetween(start, end, pageable));
+            @PageableDefault(size = 10, sort = "createdAt") Pageable pageable,
+            @RequestParam(defaultValue = "EXACT") TotalMode total) {
+        return ResponseEntity.ok(orderService.findByCreatedAtBetween(start, end, pageable, total));
+    }
+
+    // EXPORTACION para BI: /admin/orders/export?format=CSV&status=PAID&start=...&end=... (filtros opcionales)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        // se valida antes de empezar: una vez enviado el 200 ya no se puede responder con error
+        if (start != null && end != null && start.isAfter(end))
+            throw new BusinessException("la fecha de inicio no puede ser posterior a la de fin");
+
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + format.fileName("orders") + "\"")
+                .body(out -> orderService.exportOrders(status, start, end, format, out));
     }
 
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.store.order.controller;
 
+import com.store.order.admission.CheckoutAdmission;
 import com.store.order.dto.OrderRequestDTO;
 import com.store.order.dto.OrderResponseDTO;
 import com.store.order.service.OrderService;
+import com.store.querycount.QueryBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -20,17 +22,21 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Orders", description = "Operaciones de ordenes para clientes")
 public class OrderCustomerController {
     private final OrderService orderService;
+    private final CheckoutAdmission checkoutAdmission;
 
 
     // CREAR ORDEN
     @Operation(summary = "Crear orden", description = "Crea una nueva orden para el cliente")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Orden creada correctamente"),
-            @ApiResponse(responseCode = "400", description = "Datos inválidos para la orden")
+            @ApiResponse(responseCode = "400", description = "Datos inválidos para la orden"),
+            @ApiResponse(responseCode = "429", description = "La sesión ya tiene un checkout en curso"),
+            @ApiResponse(responseCode = "503", description = "Demasiados checkouts en curso (ver Retry-After)")
     })
     @PostMapping
     public ResponseEntity<OrderResponseDTO> create(@Valid @RequestBody OrderRequestDTO request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(request));
+        OrderResponseDTO order = checkoutAdmission.admit(request.getSessionId(), () -> orderService.createOrder(request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
 
@@ -40,6 +46,7 @@ public class OrderCustomerController {
             @ApiResponse(responseCode = "200", description = "Orden obtenida correctamente"),
             @ApiResponse(responseCode = "404", description = "Orden no encontrada")
     })
+    @QueryBudget(3)
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponseDTO> getMyOrder(
             @Parameter(description = "ID de la orden", example = "123")
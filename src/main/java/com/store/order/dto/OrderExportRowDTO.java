@@ -0,0 +1,32 @@
+package com.store.order.dto;
+
+import com.store.order.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * fila plana de la exportación de órdenes: una por ítem (o una sola, sin
+ * datos de ítem, si la orden no tiene ítems).
+ */
+@Data
+@AllArgsConstructor
+public class OrderExportRowDTO {
+    private Long orderId;
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+    private String shippingAddress;
+    private String shippingCity;
+    private String shippingZip;
+    private BigDecimal totalAmount;
+    private OrderStatus status;
+    private LocalDateTime createdAt;
+    private Long itemId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal price;
+}
@@ -2,6 +2,7 @@ package com.store.order.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
@@ -39,6 +40,9 @@ public class OrderEntity {
     @Column(nullable = false)
     private OrderStatus status;
 
+    // los listados paginados cargan los ítems de toda la página en una sola consulta (IN),
+    // no una por orden; un fetch join con paginación paginaría en memoria. 100 = página máxima
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<OrderItemEntity> items = new ArrayList<>();
 }
\ No newline at end of file
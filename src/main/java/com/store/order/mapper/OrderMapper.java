@@ -1,6 +1,7 @@
 package com.store.order.mapper;
 
 import com.store.cart.entity.CartItemEntity;
+import com.store.money.Money;
 import com.store.order.dto.OrderItemResponseDTO;
 import com.store.order.dto.OrderRequestDTO;
 import com.store.order.dto.OrderResponseDTO;
@@ -8,7 +9,6 @@ import com.store.order.entity.OrderEntity;
 import com.store.order.entity.OrderItemEntity;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Component
@@ -31,14 +31,14 @@ public class OrderMapper {
     }
 
     public OrderItemResponseDTO itemToDto(OrderItemEntity entity) {
-        BigDecimal subtotal = entity.getPrice().multiply(BigDecimal.valueOf(entity.getQuantity()));
+        Money price = Money.of(entity.getPrice());
 
         return OrderItemResponseDTO.builder()
                 .id(entity.getId())
                 .productName(entity.getProduct().getName())
                 .quantity(entity.getQuantity())
                 .price(entity.getPrice())
-                .subtotal(subtotal)
+                .subtotal(price.times(entity.getQuantity()).toBigDecimal())
                 .build();
     }
 
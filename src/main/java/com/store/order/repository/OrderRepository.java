@@ -1,13 +1,24 @@
 package com.store.order.repository;
 
+import com.store.order.dto.OrderExportRowDTO;
 import com.store.order.entity.OrderEntity;
 import com.store.order.entity.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     Page<OrderEntity> findAll(Pageable pageable);
@@ -18,4 +29,39 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     // solo por Rango de Fechas
     Page<OrderEntity> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    // ---- SLICE (sin COUNT) + conteos para los totales cacheados ----
+    Slice<OrderEntity> findSliceBy(Pageable pageable);
+
+    Slice<OrderEntity> findSliceByStatus(OrderStatus status, Pageable pageable);
+
+    Slice<OrderEntity> findSliceByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    long countByStatus(OrderStatus status);
+
+    long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    // ---- KEYSET (scroll por cursor, sin OFFSET ni COUNT) ----
+    Window<OrderEntity> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<OrderEntity> findByStatus(OrderStatus status, ScrollPosition position, Sort sort, Limit limit);
+
+    // ---- EXPORTACION: cursor forward-only sobre filas planas (sin entidades en el contexto de persistencia) ----
+    // filtros opcionales con COALESCE: PostgreSQL no puede tipar un "? IS NULL" suelto
+    @Query("""
+            SELECT new com.store.order.dto.OrderExportRowDTO(o.id, o.customerName, o.customerEmail, o.customerPhone,
+                   o.shippingAddress, o.shippingCity, o.shippingZip, o.totalAmount, o.status, o.createdAt,
+                   i.id, p.id, p.name, i.quantity, i.price)
+            FROM OrderEntity o LEFT JOIN o.items i LEFT JOIN i.product p
+            WHERE o.status = COALESCE(:status, o.status)
+              AND o.createdAt >= COALESCE(:start, o.createdAt)
+              AND o.createdAt <= COALESCE(:end, o.createdAt)
+            ORDER BY o.id, i.id
+            """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<OrderExportRowDTO> streamExportRows(@Param("status") OrderStatus status,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
+
 }
\ No newline at end of file
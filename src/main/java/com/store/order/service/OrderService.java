@@ -1,12 +1,16 @@
 package com.store.order.service;
 
 
+import com.store.export.ExportFormat;
 import com.store.order.dto.OrderRequestDTO;
 import com.store.order.dto.OrderResponseDTO;
 import com.store.order.entity.OrderStatus;
+import com.store.pagination.CursorPageDTO;
+import com.store.pagination.TotalMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 
 public interface OrderService {
@@ -18,14 +22,24 @@ public interface OrderService {
 
      //  ------------(ADMIN)--------
     // LISTAR TODAS LAS ORDENES (ADMIN)
-    Page<OrderResponseDTO> getAllOrders(Pageable pageable);
+    Page<OrderResponseDTO> getAllOrders(Pageable pageable, TotalMode total);
 
     // BUSCAR ORDEN POR ESTADO
-    Page<OrderResponseDTO> filterOrdersByStatus(OrderStatus status, Pageable pageable);
+    Page<OrderResponseDTO> filterOrdersByStatus(OrderStatus status, Pageable pageable, TotalMode total);
 
     // BUSCAR ORDENB POR FECHAS
     Page<OrderResponseDTO> findByCreatedAtBetween(LocalDateTime start,
                                                   LocalDateTime end,
-                                                  Pageable pageable);
+                                                  Pageable pageable,
+                                                  TotalMode total);
+
+    // SCROLL POR CURSOR (KEYSET) ordenado por fecha de creación
+    CursorPageDTO<OrderResponseDTO> scrollOrders(String cursor, int size);
+
+    CursorPageDTO<OrderResponseDTO> scrollOrdersByStatus(OrderStatus status, String cursor, int size);
+
+    // EXPORTACION (CSV / NDJSON, en streaming) con filtros opcionales de estado y fechas
+    long exportOrders(OrderStatus status, LocalDateTime start, LocalDateTime end,
+                      ExportFormat format, OutputStream out);
 
 }
@@ -2,9 +2,15 @@ package com.store.order.service;
 
 import com.store.cart.entity.CartEntity;
 import com.store.cart.entity.CartItemEntity;
+import com.store.cart.repository.CartBulkRepository;
 import com.store.cart.repository.CartRepository;
+import com.store.cart.service.CartService;
 import com.store.exception.BusinessException;
 import com.store.exception.ResourceNotFoundException;
+import com.store.export.ExportFormat;
+import com.store.export.ExportWriter;
+import com.store.money.Money;
+import com.store.order.dto.OrderExportRowDTO;
 import com.store.order.dto.OrderRequestDTO;
 import com.store.order.dto.OrderResponseDTO;
 import com.store.order.entity.OrderEntity;
@@ -12,30 +18,60 @@ import com.store.order.entity.OrderItemEntity;
 import com.store.order.entity.OrderStatus;
 import com.store.order.mapper.OrderMapper;
 import com.store.order.repository.OrderRepository;
+import com.store.pagination.CursorCodec;
+import com.store.pagination.CursorPageDTO;
+import com.store.pagination.PageTotals;
+import com.store.pagination.RowCountEstimator;
+import com.store.pagination.TotalMode;
+import com.store.product.dto.ProductResponseDTO;
 import com.store.product.entity.ProductEntity;
-import com.store.product.repository.ProductRepository;
+import com.store.product.event.ProductChangeType;
+import com.store.product.event.ProductChangedEvent;
+import com.store.product.mapper.ProductMapper;
+import com.store.stock.StockDecrementCombiner;
+import com.store.stock.StockRepository;
+import com.store.stock.StockReservations;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
-import java.math.BigDecimal;
+import tools.jackson.databind.ObjectMapper;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderServiceImp implements OrderService {
+    private static final Sort SCROLL_BY_CREATED_AT = Sort.by("createdAt", "id");
+
     private final CartRepository cartRepository;
+    private final CartBulkRepository cartBulkRepository;
+    private final CartService cartService;
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final StockRepository stockRepository;
     private final OrderMapper orderMapper;
+    private final ProductMapper productMapper;
     private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageTotals pageTotals;
+    private final RowCountEstimator rowCountEstimator;
+    private final ObjectMapper objectMapper;
+    private final StockReservations stockReservations;
+    private final StockDecrementCombiner stockCombiner;
 
     /**
      * crea una nueva orden a partir del carrito asociado a una sesión de usuario.
@@ -45,7 +81,10 @@ public class OrderServiceImp implements OrderService {
      * dado que esta versión no integra una pasarela de pagos externa (como MercadoPago),
      * se asume un pago exitoso inmediato. Por lo tanto:
      * <ul>
-     *  <li>El stock se descuenta automáticamente al crear la orden.</li>
+     *  <li>El stock se descuenta automáticamente al crear la orden, para todas las
+     *      líneas en una sola sentencia condicional ({@link StockRepository#decreaseStocks}).
+     *      Con {@link StockDecrementCombiner} activo el descuento se agrupa con el de otros
+     *      checkouts y se confirma antes que la orden; si la orden falla se devuelve.</li>
      *  <li>La orden nace con estado {@code PAID} en lugar de {@code PENDING}.</li>
      * </ul>
      *
@@ -54,58 +93,23 @@ public class OrderServiceImp implements OrderService {
      *      <li>Existencia del carrito y formato de correo.</li>
      *      <li>Verificación de stock disponible (Lanza excepción si es insuficiente).</li>
      *  </ul>
+     * Confirmada la orden, las reservas de stock del carrito se dan por consumidas.
      * @param request DTO con los datos de envío y contacto.
      * @return DTO de la orden confirmada.
      * @throws BusinessException si no hay stock suficiente para cubrir la demanda.
      */
     @Override
     public OrderResponseDTO createOrder(OrderRequestDTO request) {
-        OrderEntity savedOrder = transactionTemplate.execute(status -> {
-            CartEntity cart = cartRepository.findBySessionId(request.getSessionId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Carrito no encontrado o expirado"));
-
-            if (cart.getItems().isEmpty())
-                throw new ResourceNotFoundException("El carrito está vacío");
-
-            if(!isValidMail(request.getCustomerEmail()))
-                throw new IllegalArgumentException("Formato de correo inválido");
-
-            OrderEntity order = orderMapper.requestToEntity(request);
-            List<OrderItemEntity> orderItems = new ArrayList<>();
-            BigDecimal finalTotal = BigDecimal.ZERO;
-
-            for (CartItemEntity cartItem : cart.getItems()) {
-                ProductEntity product = cartItem.getProduct();
-                int quantity = cartItem.getQuantity();
-
-                if (product.getStock() < quantity)
-                    throw new BusinessException("Stock insuficiente para el producto: " + product.getName());
-
-                // --- LOGICA MVP-> DESCUENTO INMEDIATO ---
-                product.setStock(product.getStock() - quantity);
-                productRepository.save(product);
-
-                OrderItemEntity orderItem = new OrderItemEntity();
-                orderItem.setOrder(order);
-                orderItem.setProduct(product);
-                orderItem.setQuantity(quantity);
-                orderItem.setPrice(cartItem.getUnitPrice());
-
-                orderItems.add(orderItem);
-                finalTotal = finalTotal.add(orderItem.getPrice().multiply(BigDecimal.valueOf(quantity)));
-            }
-            order.setItems(orderItems);
-            order.setTotalAmount(finalTotal);
-
-            // --- LOGICA MVP-> ESTADO PAGADO ---
-            order.setStatus(OrderStatus.PAID);
-            order.setCartId(cart.getId());
-
-            cartRepository.delete(cart);
-
-            return orderRepository.save(order);
-        });
-        return orderMapper.entityToDto(savedOrder);
+        // con el carrito en memoria, la base puede no tener todavía los últimos cambios;
+        // hasta terminar el checkout el carrito no admite otros
+        cartService.beginCheckout(request.getSessionId());
+        try {
+            OrderEntity savedOrder = placeOrder(request);
+            cartService.evict(request.getSessionId());
+            return orderMapper.entityToDto(savedOrder);
+        } finally {
+            cartService.endCheckout(request.getSessionId());
+        }
     }
 
     /**
@@ -150,6 +154,126 @@ public class OrderServiceImp implements OrderService {
 
             // --- METODOS AUXILIARES PRIVADOS ---
 
+    /** descuenta el stock y guarda la orden; con el combinador, si la orden falla devuelve el descuento. */
+    private OrderEntity placeOrder(OrderRequestDTO request) {
+        // con el combinador el descuento se confirma antes (y por fuera) de la transacción de la orden:
+        // desde que se confirma, cualquier falla hasta guardar la orden lo devuelve
+        Map<Long, Integer> combinedQuantities = null;
+        OrderEntity savedOrder;
+        try {
+            Map<Long, Integer> combined = null;
+            if (stockCombiner.isEnabled()) {
+                CartEntity cart = transactionTemplate.execute(status -> checkoutCart(request));
+                Map<Long, Integer> quantities = lineQuantities(cart);
+                combined = stockCombiner.decrease(quantities);
+                if (combined.size() < quantities.size()) throw insufficientStock(cart, combined);
+                combinedQuantities = quantities;
+            }
+
+            Map<Long, Integer> preDecreased = combined;
+            Map<Long, Integer> decreasedQuantities = combinedQuantities;
+            savedOrder = transactionTemplate.execute(status -> {
+                CartEntity cart = checkoutCart(request);
+                Map<Long, Integer> quantities = lineQuantities(cart);
+
+                // --- LOGICA MVP-> DESCUENTO INMEDIATO (todas las líneas en una sola sentencia) ---
+                Map<Long, Integer> newStocks;
+                if (preDecreased != null) {
+                    // el carrito pudo cambiar mientras el pedido esperaba su lote: se bloquea
+                    // hasta guardar la orden y tiene que coincidir con lo descontado
+                    Long cartId = cartBulkRepository.lockCart(request.getSessionId());
+                    if (!quantities.equals(decreasedQuantities)
+                            || !cartBulkRepository.findQuantities(cartId).equals(decreasedQuantities))
+                        throw new BusinessException("El carrito cambió durante el checkout, volvé a confirmarlo");
+                    newStocks = preDecreased;
+                } else {
+                    newStocks = stockRepository.decreaseStocks(quantities);
+                    if (newStocks.size() < quantities.size()) throw insufficientStock(cart, newStocks);
+                }
+
+                return saveOrder(request, cart, newStocks);
+            });
+        } catch (RuntimeException e) {
+            if (combinedQuantities != null) stockCombiner.compensate(combinedQuantities);
+            throw e;
+        }
+        return savedOrder;
+    }
+
+    /**
+     * guarda la orden del carrito (con el stock ya descontado) y borra el carrito.
+     * @param newStocks stock resultante por producto, para invalidar las cachés
+     */
+    private OrderEntity saveOrder(OrderRequestDTO request, CartEntity cart, Map<Long, Integer> newStocks) {
+        OrderEntity order = orderMapper.requestToEntity(request);
+        List<OrderItemEntity> orderItems = new ArrayList<>();
+        List<ProductResponseDTO> touchedProducts = new ArrayList<>();
+        Money finalTotal = Money.ZERO;
+
+        for (CartItemEntity cartItem : cart.getItems()) {
+            ProductEntity product = cartItem.getProduct();
+            int quantity = cartItem.getQuantity();
+
+            // la entidad no se toca: el stock ya se descontó en la base
+            ProductResponseDTO touched = productMapper.entityToDto(product);
+            touched.setStock(newStocks.get(product.getId()));
+            touchedProducts.add(touched);
+
+            OrderItemEntity orderItem = new OrderItemEntity();
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(quantity);
+            orderItem.setPrice(cartItem.getUnitPrice());
+
+            orderItems.add(orderItem);
+            finalTotal = finalTotal.plus(Money.of(orderItem.getPrice()).times(quantity));
+        }
+        order.setItems(orderItems);
+        order.setTotalAmount(finalTotal.toBigDecimal());
+
+        // --- LOGICA MVP-> ESTADO PAGADO ---
+        order.setStatus(OrderStatus.PAID);
+        order.setCartId(cart.getId());
+
+        cartRepository.delete(cart);
+
+        // las reservas del carrito se liberan al confirmar, antes de que el evento baje el stock
+        stockReservations.consume(request.getSessionId());
+        // invalida la caché del catálogo recién después del commit
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangeType.STOCK_DECREASED, touchedProducts));
+
+        return orderRepository.save(order);
+    }
+
+    /** carrito a confirmar, validado: existe, tiene ítems y el correo es válido. */
+    private CartEntity checkoutCart(OrderRequestDTO request) {
+        CartEntity cart = cartRepository.findBySessionId(request.getSessionId())
+                .orElseThrow(() -> new ResourceNotFoundException("Carrito no encontrado o expirado"));
+
+        if (cart.getItems().isEmpty())
+            throw new ResourceNotFoundException("El carrito está vacío");
+
+        if(!isValidMail(request.getCustomerEmail()))
+            throw new IllegalArgumentException("Formato de correo inválido");
+        return cart;
+    }
+
+    private static Map<Long, Integer> lineQuantities(CartEntity cart) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItemEntity cartItem : cart.getItems())
+            quantities.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
+        return quantities;
+    }
+
+    /** @param newStocks resultado del descuento: le faltan los productos sin stock suficiente */
+    private static BusinessException insufficientStock(CartEntity cart, Map<Long, Integer> newStocks) {
+        return new BusinessException("Stock insuficiente para el producto: " + cart.getItems().stream()
+                .map(CartItemEntity::getProduct)
+                .filter(p -> !newStocks.containsKey(p.getId()))
+                .map(ProductEntity::getName)
+                .findFirst().orElse(""));
+    }
+
     /**
      * Maneja el procesamiento de una orden con pago aprobado.
      * <p>Responsabilidades previstas:
@@ -202,12 +326,17 @@ public class OrderServiceImp implements OrderService {
 
     /**
      *  -retorna todas las ordenes paginadas
+     *  -con {@code total} CACHED/ESTIMATED no ejecuta el COUNT(*) de la página
      */
     @Override
-    public Page<OrderResponseDTO> getAllOrders(Pageable pageable) {
-        return orderRepository
-                .findAll(pageable)
-                .map(orderMapper::entityToDto);
+    public Page<OrderResponseDTO> getAllOrders(Pageable pageable, TotalMode total) {
+        if (total == TotalMode.EXACT)
+            return orderRepository
+                    .findAll(pageable)
+                    .map(orderMapper::entityToDto);
+
+        return pageTotals.withTotal(orderRepository.findSliceBy(pageable).map(orderMapper::entityToDto),
+                total, "orders", orderRepository::count, () -> rowCountEstimator.tableRows("orders"));
     }
 
     /**
@@ -215,22 +344,91 @@ public class OrderServiceImp implements OrderService {
      *  -retorna el resultado paginado
      */
     @Override
-    public Page<OrderResponseDTO> filterOrdersByStatus(OrderStatus status, Pageable pageable) {
-        return orderRepository
-                .findByStatus(status,pageable)
-                .map(orderMapper::entityToDto);
+    public Page<OrderResponseDTO> filterOrdersByStatus(OrderStatus status, Pageable pageable, TotalMode total) {
+        if (total == TotalMode.EXACT)
+            return orderRepository
+                    .findByStatus(status,pageable)
+                    .map(orderMapper::entityToDto);
+
+        return pageTotals.withTotal(orderRepository.findSliceByStatus(status, pageable).map(orderMapper::entityToDto),
+                total, "orders:status=" + status, () -> orderRepository.countByStatus(status),
+                () -> rowCountEstimator.queryRows("SELECT 1 FROM orders WHERE status = CAST(? AS order_status)",
+                        status.name()));
     }
 
     /*
      * retorna órdenes creadas entre dos fechas pagionado
      */
     @Override
-    public Page<OrderResponseDTO> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable) {
-        return orderRepository
-                .findByCreatedAtBetween(start,end,pageable)
-                .map(orderMapper::entityToDto);
+    public Page<OrderResponseDTO> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end,
+                                                         Pageable pageable, TotalMode total) {
+        if (total == TotalMode.EXACT)
+            return orderRepository
+                    .findByCreatedAtBetween(start,end,pageable)
+                    .map(orderMapper::entityToDto);
+
+        return pageTotals.withTotal(orderRepository.findSliceByCreatedAtBetween(start, end, pageable)
+                        .map(orderMapper::entityToDto),
+                total, "orders:created=" + start + "/" + end, () -> orderRepository.countByCreatedAtBetween(start, end),
+                () -> rowCountEstimator.queryRows("SELECT 1 FROM orders WHERE created_at BETWEEN ? AND ?", start, end));
+    }
+
+    /**
+     * retorna órdenes por cursor ordenadas por {@code (createdAt, id)}.
+     * <p>No usa OFFSET ni COUNT: la página 500 cuesta lo mismo que la primera.
+     * @param cursor cursor devuelto por la página anterior, o {@code null} para la primera
+     * @param size cantidad de órdenes (máximo {@value CursorCodec#MAX_PAGE_SIZE})
+     * @return página con el cursor de la siguiente
+     */
+    @Override
+    public CursorPageDTO<OrderResponseDTO> scrollOrders(String cursor, int size) {
+        Window<OrderEntity> window = orderRepository.findAllBy(CursorCodec.decode(cursor, SCROLL_BY_CREATED_AT),
+                SCROLL_BY_CREATED_AT, Limit.of(CursorCodec.clampSize(size)));
+
+        return CursorCodec.toPage(window, SCROLL_BY_CREATED_AT, orderMapper::entityToDto);
+    }
+
+    @Override
+    public CursorPageDTO<OrderResponseDTO> scrollOrdersByStatus(OrderStatus status, String cursor, int size) {
+        Window<OrderEntity> window = orderRepository.findByStatus(status, CursorCodec.decode(cursor, SCROLL_BY_CREATED_AT),
+                SCROLL_BY_CREATED_AT, Limit.of(CursorCodec.clampSize(size)));
+
+        return CursorCodec.toPage(window, SCROLL_BY_CREATED_AT, orderMapper::entityToDto);
     }
 
+    /**
+     * exporta órdenes con una fila por ítem, ordenadas por orden e ítem.
+     * <p>Lee de un cursor forward-only (fetch size acotado, proyección a filas planas)
+     * dentro de una transacción de solo lectura y escribe cada fila apenas llega:
+     * la memoria no depende de la cantidad de órdenes exportadas.
+     * @param status estado, o {@code null} para todos
+     * @param start desde (inclusive), o {@code null}
+     * @param end hasta (inclusive), o {@code null}
+     * @param format CSV o NDJSON (mismas columnas en ambos)
+     * @param out cuerpo de la respuesta
+     * @return cantidad de filas exportadas
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderStatus status, LocalDateTime start, LocalDateTime end,
+                             ExportFormat format, OutputStream out) {
+        try (ExportWriter writer = new ExportWriter(out, format, objectMapper);
+             Stream<OrderExportRowDTO> rows = orderRepository.streamExportRows(status, start, end)) {
+            if (format == ExportFormat.CSV)
+                writer.header("orderId", "customerName", "customerEmail", "customerPhone", "shippingAddress",
+                        "shippingCity", "shippingZip", "totalAmount", "status", "createdAt",
+                        "itemId", "productId", "productName", "quantity", "price");
+
+            rows.forEach(r -> {
+                if (format == ExportFormat.NDJSON) writer.json(r);
+                else writer.csv(r.getOrderId(), r.getCustomerName(), r.getCustomerEmail(), r.getCustomerPhone(),
+                        r.getShippingAddress(), r.getShippingCity(), r.getShippingZip(), r.getTotalAmount(),
+                        r.getStatus(), r.getCreatedAt(), r.getItemId(), r.getProductId(), r.getProductName(),
+                        r.getQuantity(), r.getPrice());
+            });
+            return writer.records();
+        }
+    }
     /**
      * Retorna total de ventas y cantidad de clientes.
      */
@@ -0,0 +1,124 @@
+package com.store.pagination;
+
+import com.store.exception.BusinessException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * convierte posiciones de keyset ({@code (name, id)}, {@code (createdAt, id)}, ...)
+ * en cursores opacos para el cliente y viceversa.
+ * <p>El cursor es Base64-URL de los valores de la clave de orden con su tipo;
+ * los nombres de las propiedades no viajan, se toman del {@link Sort} del endpoint.
+ */
+public final class CursorCodec {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String FIELD_SEPARATOR = "\u001f";
+    private static final String VALUE_SEPARATOR = "\u001e";
+
+    private CursorCodec() {}
+
+    /**
+     * @param cursor cursor recibido del cliente; {@code null} o vacío para la primera página
+     * @param sort orden del endpoint (debe terminar en {@code id} para ser determinístico)
+     * @return posición desde la cual continuar
+     * @throws BusinessException si el cursor está mal formado o no corresponde al orden
+     */
+    public static ScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) return ScrollPosition.keyset();
+
+        List<String> properties = sort.stream().map(Sort.Order::getProperty).toList();
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = raw.split(VALUE_SEPARATOR, -1);
+            if (values.length != properties.size()) throw new BusinessException("cursor inválido");
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                keys.put(properties.get(i), decodeValue(values[i]));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("cursor inválido");
+        }
+    }
+
+    /**
+     * arma la respuesta a partir de la ventana devuelta por el repositorio.
+     * @param window resultado del scroll
+     * @param sort orden usado en la consulta (define el orden de los valores en el cursor)
+     * @param mapper conversión entidad -&gt; DTO
+     * @return página con el cursor de la siguiente, si existe
+     */
+    public static <E, T> CursorPageDTO<T> toPage(Window<E> window, Sort sort, Function<E, T> mapper) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encode((KeysetScrollPosition) window.positionAt(window.size() - 1), sort);
+        }
+
+        return CursorPageDTO.<T>builder()
+                .content(window.getContent().stream().map(mapper).toList())
+                .size(window.size())
+                .hasNext(nextCursor != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * limita el tamaño pedido por el cliente a {@code [1, MAX_PAGE_SIZE]}.
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    static String encode(KeysetScrollPosition position, Sort sort) {
+        List<String> values = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            values.add(encodeValue(position.getKeys().get(order.getProperty())));
+        }
+        byte[] raw = String.join(VALUE_SEPARATOR, values).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    private static String encodeValue(Object value) {
+        return switch (value) {
+            case null -> "N" + FIELD_SEPARATOR;
+            case String s -> "S" + FIELD_SEPARATOR + s;
+            case Long l -> "L" + FIELD_SEPARATOR + l;
+            case BigDecimal d -> "D" + FIELD_SEPARATOR + d.toPlainString();
+            case LocalDateTime t -> "T" + FIELD_SEPARATOR + t;
+            default -> throw new IllegalStateException("tipo de clave no soportado: " + value.getClass());
+        };
+    }
+
+    private static Object decodeValue(String encoded) {
+        String[] parts = encoded.split(FIELD_SEPARATOR, 2);
+        if (parts.length != 2) throw new BusinessException("cursor inválido");
+
+        try {
+            return switch (parts[0]) {
+                case "N" -> null;
+                case "S" -> parts[1];
+                case "L" -> Long.valueOf(parts[1]);
+                case "D" -> new BigDecimal(parts[1]);
+                case "T" -> LocalDateTime.parse(parts[1]);
+                default -> throw new BusinessException("cursor inválido");
+            };
+        } catch (RuntimeException e) {
+            if (e instanceof BusinessException) throw e;
+            throw new BusinessException("cursor inválido");
+        }
+    }
+}
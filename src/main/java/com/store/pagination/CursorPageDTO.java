@@ -0,0 +1,21 @@
+package com.store.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * página obtenida por keyset (seek): no tiene número de página ni total,
+ * solo el cursor opaco para pedir la siguiente.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
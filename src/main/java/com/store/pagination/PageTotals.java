@@ -0,0 +1,67 @@
+package com.store.pagination;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * completa un {@link Slice} (consulta sin COUNT) con un total obtenido
+ * según el {@link TotalMode} pedido, devolviendo un {@link Page} con la
+ * misma forma JSON que los listados de siempre.
+ * <p>Los totales {@code CACHED} viven en una caché con TTL corto
+ * ({@code store.cache.page-counts.*}, métricas bajo {@code cache="page-counts"}).
+ */
+@Component
+public class PageTotals {
+    private final Cache<String, Long> counts;
+
+    public PageTotals(MeterRegistry meterRegistry,
+                      @Value("${store.cache.page-counts.max-size}") long maxSize,
+                      @Value("${store.cache.page-counts.ttl}") Duration ttl) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "page-counts");
+    }
+
+    /**
+     * @param slice página ya consultada sin COUNT
+     * @param mode {@code CACHED} o {@code ESTIMATED}
+     * @param countKey clave del filtro (ej. {@code "orders:status=PAID"})
+     * @param exactCount COUNT exacto; también se usa si no hay estadísticas
+     * @param estimate estimación del planner ({@code -1} si no la hay)
+     * @return página con el total resuelto
+     */
+    public <T> Page<T> withTotal(Slice<T> slice, TotalMode mode, String countKey,
+                                 LongSupplier exactCount, LongSupplier estimate) {
+        long seen = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + slice.getNumberOfElements()
+                : slice.getNumberOfElements();
+
+        // última página: el total exacto sale gratis
+        if (!slice.hasNext()) return new PageImpl<>(slice.getContent(), slice.getPageable(), seen);
+
+        long total = switch (mode) {
+            case CACHED -> counts.get(countKey, key -> exactCount.getAsLong());
+            case ESTIMATED -> {
+                long estimated = estimate.getAsLong();
+                yield estimated >= 0 ? estimated : counts.get(countKey, key -> exactCount.getAsLong());
+            }
+            case EXACT -> exactCount.getAsLong();
+        };
+        // una estimación vieja no puede contradecir lo que ya se ve en pantalla
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(total, seen + 1));
+    }
+}
@@ -0,0 +1,43 @@
+package com.store.pagination;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * estima cantidades de filas con las estadísticas del planner de PostgreSQL.
+ * <p>La precisión depende del último {@code ANALYZE} (autovacuum lo mantiene);
+ * a cambio el costo es constante sin importar el tamaño de la tabla.
+ */
+@Component
+@RequiredArgsConstructor
+public class RowCountEstimator {
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param table nombre de la tabla (constante del código, nunca input del usuario)
+     * @return filas según {@code pg_class.reltuples}, o {@code -1} si la tabla nunca fue analizada
+     */
+    public long tableRows(String table) {
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, table);
+        return rows == null ? -1 : rows;
+    }
+
+    /**
+     * @param sql consulta a estimar (constante del código), con parámetros {@code ?}
+     * @param args valores de los parámetros
+     * @return filas estimadas por {@code EXPLAIN} para el nodo raíz del plan
+     */
+    public long queryRows(String sql, Object... args) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+        Matcher matcher = PLAN_ROWS.matcher(plan.isEmpty() ? "" : plan.getFirst());
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.store.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * página sin total: solo indica si hay una siguiente.
+ * <p>Se obtiene pidiendo un elemento de más, sin la consulta {@code COUNT(*)}
+ * que acompaña a cada {@code Page}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class SliceDTO<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+
+    public static <T> SliceDTO<T> of(Slice<T> slice) {
+        return SliceDTO.<T>builder()
+                .content(slice.getContent())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+}
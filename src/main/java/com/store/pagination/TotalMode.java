@@ -0,0 +1,15 @@
+package com.store.pagination;
+
+/**
+ * origen del total ({@code totalElements}) de un listado paginado.
+ * <ul>
+ *   <li>{@code EXACT}: {@code COUNT(*)} con el mismo filtro en cada request (comportamiento histórico).</li>
+ *   <li>{@code CACHED}: el mismo COUNT, pero reutilizado durante un TTL corto.</li>
+ *   <li>{@code ESTIMATED}: estimación del planner de PostgreSQL, sin recorrer la tabla.</li>
+ * </ul>
+ */
+public enum TotalMode {
+    EXACT,
+    CACHED,
+    ESTIMATED
+}
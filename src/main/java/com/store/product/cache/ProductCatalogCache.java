@@ -0,0 +1,119 @@
+package com.store.product.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.store.category.event.CategoryChangedEvent;
+import com.store.product.dto.ProductResponseDTO;
+import com.store.product.event.ProductChangeType;
+import com.store.product.event.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * caché en memoria del catálogo público.
+ * <p>Guarda dos regiones acotadas por tamaño y TTL:
+ * <ul>
+ *   <li>{@code products}: DTO de detalle por ID ({@code /products/{id}}).</li>
+ *   <li>{@code catalog-pages}: páginas de productos en stock ({@code /products/catalog}
+ *       y su variante sin total {@code /products/catalog/slice}).</li>
+ * </ul>
+ * la invalidación se hace con {@link ProductChangedEvent} y {@link CategoryChangedEvent}
+ * luego del commit, antes que cualquier otro listener (los ETags dependen de eso).
+ * Los contadores de hits/misses/evictions se publican en Micrometer
+ * ({@code cache.gets}, {@code cache.evictions}, {@code cache.size}).
+ */
+@Component
+public class ProductCatalogCache {
+    private final Cache<Long, ProductResponseDTO> products;
+    private final Cache<PageKey, Slice<ProductResponseDTO>> catalogPages;
+
+    public ProductCatalogCache(MeterRegistry meterRegistry,
+                               @Value("${store.cache.products.max-size}") long productsMaxSize,
+                               @Value("${store.cache.products.ttl}") Duration productsTtl,
+                               @Value("${store.cache.catalog-pages.max-size}") long pagesMaxSize,
+                               @Value("${store.cache.catalog-pages.ttl}") Duration pagesTtl) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(productsMaxSize)
+                .expireAfterWrite(productsTtl)
+                .recordStats()
+                .build();
+        this.catalogPages = Caffeine.newBuilder()
+                .maximumSize(pagesMaxSize)
+                .expireAfterWrite(pagesTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, catalogPages, "catalog-pages");
+    }
+
+    public ProductResponseDTO getProduct(Long id, Function<Long, ProductResponseDTO> loader) {
+        return products.get(id, loader);
+    }
+
+    public Page<ProductResponseDTO> getCatalogPage(Pageable pageable, Supplier<Page<ProductResponseDTO>> loader) {
+        return (Page<ProductResponseDTO>) catalogPages.get(PageKey.of(pageable, true), key -> loader.get());
+    }
+
+    public Slice<ProductResponseDTO> getCatalogSlice(Pageable pageable, Supplier<Slice<ProductResponseDTO>> loader) {
+        return catalogPages.get(PageKey.of(pageable, false), key -> loader.get());
+    }
+
+    /**
+     * invalida únicamente lo afectado por el cambio.
+     * <ul>
+     *   <li>importación masiva (o escrituras de otra instancia): todo.</li>
+     *   <li>el detalle de cada producto modificado.</li>
+     *   <li>alta, baja o edición: todas las páginas, porque el orden y los
+     *       límites de página pueden correrse.</li>
+     *   <li>descuento de stock: solo las páginas que contienen el producto,
+     *       salvo que quede en cero (sale del catálogo y se corren las páginas).</li>
+     * </ul>
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangeType.BULK_IMPORTED) {
+            products.invalidateAll();
+            catalogPages.invalidateAll();
+            return;
+        }
+        products.invalidateAll(event.productIds());
+
+        if (event.affectsListings()) {
+            catalogPages.invalidateAll();
+            return;
+        }
+
+        Set<Long> changedIds = Set.copyOf(event.productIds());
+        catalogPages.asMap().entrySet().removeIf(entry -> entry.getValue().getContent().stream()
+                .anyMatch(p -> changedIds.contains(p.getId())));
+    }
+
+    /** los DTO llevan el nombre de subcategoría y categoría: cualquier cambio los invalida. */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        products.invalidateAll();
+        catalogPages.invalidateAll();
+    }
+
+    private record PageKey(int page, int size, String sort, boolean counted) {
+        static PageKey of(Pageable pageable, boolean counted) {
+            return new PageKey(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString(), counted);
+        }
+    }
+}
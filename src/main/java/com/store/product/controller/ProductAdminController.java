@@ -1,10 +1,19 @@
 package com.store.product.controller;
 
+import com.store.export.ExportFormat;
+import com.store.pagination.CursorPageDTO;
+import com.store.pagination.TotalMode;
+import com.store.product.dto.ProductBulkUpdateReportDTO;
+import com.store.product.dto.ProductBulkUpdateRequestDTO;
+import com.store.product.dto.ProductImportReportDTO;
 import com.store.product.dto.ProductPatchRequestDTO;
 import com.store.product.dto.ProductRequestDTO;
 import com.store.product.dto.ProductResponseDTO;
+import com.store.product.importer.ImportFormat;
 import com.store.product.service.ProductServiceImp;
+import com.store.querycount.QueryBudget;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,9 +22,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/admin/products")
@@ -37,6 +50,44 @@ public class ProductAdminController {
        return ResponseEntity.status(HttpStatus.CREATED).body(productService.createProduct(request));
     }
 
+    @Operation(summary = "Importación masiva de productos",
+            description = "Recibe un archivo CSV (text/csv, con encabezado name,price,description,url,stock,subcategoryId) " +
+                    "o NDJSON (application/x-ndjson, un producto por línea) y lo inserta en lotes. " +
+                    "Las filas inválidas o duplicadas se informan por número de línea sin frenar la importación.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Importación finalizada (ver errores por línea)"),
+            @ApiResponse(responseCode = "400", description = "Formato o encabezado inválido")})
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportReportDTO> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                 InputStream body) {
+        return ResponseEntity.ok(productService.importProducts(body, ImportFormat.fromContentType(contentType)));
+    }
+
+    @Operation(summary = "Actualización masiva de precio y stock",
+            description = "Aplica una lista de {id, price?, stock?, stockDelta?} en una sola sentencia. " +
+                    "stock fija el valor y stockDelta lo suma o resta; los ítems que no se pueden aplicar " +
+                    "se informan por ID sin frenar al resto.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Actualización finalizada (ver errores por ID)"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos")})
+    @PatchMapping("/bulk")
+    public ResponseEntity<ProductBulkUpdateReportDTO> bulkUpdate(@Valid @RequestBody ProductBulkUpdateRequestDTO request) {
+        return ResponseEntity.ok(productService.bulkUpdate(request));
+    }
+
+    @Operation(summary = "Exportar catálogo completo",
+            description = "Descarga todos los productos en CSV (mismo encabezado que la importación) o NDJSON, " +
+                    "en streaming desde un cursor de la base: apto para catálogos de millones de filas.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Exportación en curso")})
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + format.fileName("products") + "\"")
+                .body(out -> productService.exportProducts(format, out));
+    }
+
     @Operation(summary = "Actualizar producto",
             description = "Actualiza parcialmente un producto existente. " + "Endpoint exclusivo para administradores.")
     @ApiResponses({
@@ -63,13 +114,31 @@ public class ProductAdminController {
 
     // TABLERO PRINCIPAL -> DASHBOARD
     @Operation(summary = "Listado de productos (dashboard)",
-            description = "Obtiene el listado paginado de todos los productos para el panel administrativo.")
+            description = "Obtiene el listado paginado de todos los productos para el panel administrativo. " +
+                    "total=CACHED o ESTIMATED evita el COUNT(*) exacto en cada página.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Listado obtenido correctamente")})
+    @QueryBudget(3)
     @GetMapping
     public ResponseEntity<Page<ProductResponseDTO>> getAllForAdmin(
-            @PageableDefault(size = 10, sort = "id") Pageable pageable) {
-         return ResponseEntity.ok(productService.listProducts(pageable));
+            @PageableDefault(size = 10, sort = "id") Pageable pageable,
+            @Parameter(description = "Origen del total: EXACT, CACHED o ESTIMATED") @RequestParam(defaultValue = "EXACT") TotalMode total) {
+         return ResponseEntity.ok(productService.listProducts(pageable, total));
+    }
+
+    // TABLERO PRINCIPAL POR CURSOR (scroll infinito / navegación profunda)
+    @Operation(summary = "Listado de productos por cursor",
+            description = "Listado ordenado por ID usando paginación keyset. " +
+                    "Enviar el nextCursor de la respuesta anterior para obtener la siguiente página.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Listado obtenido correctamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido")})
+    @QueryBudget(2)
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollForAdmin(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(productService.scrollProducts(cursor, size));
     }
 
     // REPORTE DE STOCK CRÍTICO
@@ -77,15 +146,18 @@ public class ProductAdminController {
             description = "Obtiene el listado paginado de productos con stock crítico o sin stock.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Reporte generado correctamente")})
+    @QueryBudget(3)
     @GetMapping("/out-of-stock")
-    public ResponseEntity<Page<ProductResponseDTO>> getOutOfStock(@PageableDefault(size = 10, sort = "name") Pageable pageable) {
-        return ResponseEntity.ok(productService.listOutOfStock(pageable));
+    public ResponseEntity<Page<ProductResponseDTO>> getOutOfStock(@PageableDefault(size = 10, sort = "name") Pageable pageable,
+                                                                  @RequestParam(defaultValue = "EXACT") TotalMode total) {
+        return ResponseEntity.ok(productService.listOutOfStock(pageable, total));
     }
 
     @Operation(summary = "Buscar productos",
             description = "Busca productos por nombre dentro del panel administrativo.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Resultados obtenidos correctamente")})
+    @QueryBudget(2)
     @GetMapping("/search")
     public ResponseEntity<Page<ProductResponseDTO>> searchForAdmin(@RequestParam String name,
                                                                    @PageableDefault(size = 10) Pageable pageable) {
@@ -1,7 +1,14 @@
 package com.store.product.controller;
 
+import com.store.etag.ResourceVersions;
+import com.store.pagination.CursorPageDTO;
+import com.store.pagination.SliceDTO;
+import com.store.product.dto.ProductBrowseFilterDTO;
+import com.store.product.dto.ProductBrowseResponseDTO;
 import com.store.product.dto.ProductResponseDTO;
+import com.store.product.dto.SuggestionDTO;
 import com.store.product.service.ProductServiceImp;
+import com.store.querycount.QueryBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,9 +18,12 @@ import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/products")
@@ -21,17 +31,93 @@ import java.math.BigDecimal;
 @Tag(name = "Products", description = "Operaciones de gestion de productos para clientes")
 public class ProductCustomerController {
     private final ProductServiceImp productService;
+    private final ResourceVersions resourceVersions;
 
 
     // CATALOGO (HOME)
     @Operation(summary = "Catalogo de productos", description = "Lista todos los productos disponibles en stock")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Catalogo obtenido correctamente")
+            @ApiResponse(responseCode = "200", description = "Catalogo obtenido correctamente"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado en If-None-Match")
     })
+    @QueryBudget(2)
     @GetMapping("/catalog")
     public ResponseEntity<Page<ProductResponseDTO>> getCatalog(
-            @PageableDefault(size = 10, sort = "name") Pageable pageable){
-        return ResponseEntity.ok(productService.listInStock(pageable));
+            @PageableDefault(size = 10, sort = "name") Pageable pageable, WebRequest request){
+        if (request.checkNotModified(resourceVersions.catalog())) return null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productService.listInStock(pageable));
+    }
+
+    @Operation(summary = "Catalogo de productos (sin total)",
+            description = "Igual que /catalog pero sin totalElements/totalPages: solo indica si hay más páginas")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Catalogo obtenido correctamente"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado en If-None-Match")
+    })
+    @QueryBudget(2)
+    @GetMapping("/catalog/slice")
+    public ResponseEntity<SliceDTO<ProductResponseDTO>> getCatalogSlice(
+            @PageableDefault(size = 10, sort = "name") Pageable pageable, WebRequest request){
+        if (request.checkNotModified(resourceVersions.catalog())) return null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productService.sliceInStock(pageable));
+    }
+
+    @Operation(summary = "Catalogo de productos (cursor)",
+            description = "Igual que /catalog pero con paginación keyset ordenada por nombre, para scroll infinito")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Catalogo obtenido correctamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    })
+    @QueryBudget(1)
+    @GetMapping("/catalog/cursor")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollCatalog(
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(productService.scrollInStock(cursor, size));
+    }
+
+
+    // NAVEGACION CON FILTROS COMBINADOS (barra lateral del storefront)
+    @Operation(summary = "Explorar productos",
+            description = "Combina categoría, subcategoría, rango de precio, stock y texto; " +
+                    "devuelve la página junto con las facetas (por subcategoría, rango de precio y stock)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos y facetas obtenidos correctamente"),
+            @ApiResponse(responseCode = "400", description = "Rango de precios u orden inválido")
+    })
+    @GetMapping("/browse")
+    public ResponseEntity<ProductBrowseResponseDTO> browse(
+            @Parameter(description = "ID de la categoría", example = "5") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "ID de la subcategoría", example = "3") @RequestParam(required = false) Long subcategoryId,
+            @Parameter(description = "Precio mínimo", example = "100.00") @RequestParam(required = false) BigDecimal min,
+            @Parameter(description = "Precio máximo", example = "500.00") @RequestParam(required = false) BigDecimal max,
+            @Parameter(description = "true: solo con stock, false: solo sin stock") @RequestParam(required = false) Boolean inStock,
+            @Parameter(description = "Texto a buscar", example = "mate calabaza") @RequestParam(required = false) String q,
+            @PageableDefault(size = 10) Pageable pageable) {
+        ProductBrowseFilterDTO filter = ProductBrowseFilterDTO.builder()
+                .categoryId(categoryId)
+                .subcategoryId(subcategoryId)
+                .minPrice(min)
+                .maxPrice(max)
+                .inStock(inStock)
+                .query(q)
+                .build();
+        return ResponseEntity.ok(productService.browse(filter, pageable));
+    }
+
+
+    // AUTOCOMPLETADO (typeahead del buscador)
+    @Operation(summary = "Sugerencias de búsqueda",
+            description = "Devuelve categorías, subcategorías y productos cuyo nombre tiene una palabra que empieza con el prefijo")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Sugerencias obtenidas correctamente")
+    })
+    @QueryBudget(1)
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @Parameter(description = "Texto tipeado hasta el momento", example = "yer") @RequestParam String prefix,
+            @Parameter(description = "Cantidad de sugerencias (máximo 20)") @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
     }
 
 
@@ -40,6 +126,7 @@ public class ProductCustomerController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Productos encontrados correctamente")
     })
+    @QueryBudget(1)
     @GetMapping("/search")
     public ResponseEntity<Page<ProductResponseDTO>> searchProducts(
             @Parameter(description = "Nombre o texto a buscar", example = "mate calabaza")
@@ -53,13 +140,16 @@ public class ProductCustomerController {
     @Operation(summary = "Detalle del producto", description = "Obtiene la información de un producto por su ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Producto obtenido correctamente"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado en If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado")
     })
+    @QueryBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> getProduct(
             @Parameter(description = "ID del producto", example = "101")
-            @PathVariable Long id){
-        return ResponseEntity.ok(productService.findById(id));
+            @PathVariable Long id, WebRequest request){
+        if (request.checkNotModified(resourceVersions.product(id))) return null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productService.findById(id));
     }
 
 
@@ -68,6 +158,7 @@ public class ProductCustomerController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Productos filtrados correctamente")
     })
+    @QueryBudget(2)
     @GetMapping("/filter/category/{id}")
     public ResponseEntity<Page<ProductResponseDTO>> filterByCategory(
             @Parameter(description = "ID de la categoría", example = "5")
@@ -76,12 +167,60 @@ public class ProductCustomerController {
         return ResponseEntity.ok(productService.filterProductsByCategory(id, pageable));
     }
 
+    @Operation(summary = "Filtrar productos por categoría (sin total)",
+            description = "Igual que /filter/category/{id} pero sin el conteo total de resultados")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos filtrados correctamente")
+    })
+    @QueryBudget(1)
+    @GetMapping("/filter/category/{id}/slice")
+    public ResponseEntity<SliceDTO<ProductResponseDTO>> sliceByCategory(
+            @Parameter(description = "ID de la categoría", example = "5")
+            @PathVariable Long id,
+            @PageableDefault(size = 10) Pageable pageable) {
+        return ResponseEntity.ok(productService.sliceByCategory(id, pageable));
+    }
+
+
+    @Operation(summary = "Filtrar productos por categoría (cursor)",
+            description = "Igual que /filter/category/{id} pero con paginación keyset ordenada por nombre, para scroll infinito")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos filtrados correctamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    })
+    @QueryBudget(1)
+    @GetMapping("/filter/category/{id}/cursor")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollByCategory(
+            @Parameter(description = "ID de la categoría", example = "5") @PathVariable Long id,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(productService.scrollByCategory(id, cursor, size));
+    }
+
+
+    // FILTRA POR SUBCATEGORÍA
+    @Operation(summary = "Filtrar productos por subcategoría (cursor)",
+            description = "Devuelve los productos de una subcategoría con paginación keyset ordenada por nombre")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos filtrados correctamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    })
+    @QueryBudget(1)
+    @GetMapping("/filter/subcategory/{id}/cursor")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollBySubcategory(
+            @Parameter(description = "ID de la subcategoría", example = "3") @PathVariable Long id,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(productService.scrollBySubcategory(id, cursor, size));
+    }
+
 
     // FILTRA POR RANGO DE PRECIO
     @Operation(summary = "Filtrar productos por precio", description = "Devuelve los productos cuyo precio está dentro de un rango")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Productos filtrados por precio correctamente")
     })
+    @QueryBudget(2)
     @GetMapping("/filter/price")
     public ResponseEntity<Page<ProductResponseDTO>> filterByPrice(
             @Parameter(description = "Precio mínimo", example = "100.00") @RequestParam BigDecimal min,
@@ -89,4 +228,34 @@ public class ProductCustomerController {
             @PageableDefault(size = 10, sort = "price") Pageable pageable) {
         return ResponseEntity.ok(productService.filterByPriceRange(min, max, pageable));
     }
+
+    @Operation(summary = "Filtrar productos por precio (sin total)",
+            description = "Igual que /filter/price pero sin el conteo total de resultados")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos filtrados por precio correctamente")
+    })
+    @QueryBudget(1)
+    @GetMapping("/filter/price/slice")
+    public ResponseEntity<SliceDTO<ProductResponseDTO>> sliceByPrice(
+            @Parameter(description = "Precio mínimo", example = "100.00") @RequestParam BigDecimal min,
+            @Parameter(description = "Precio máximo", example = "500.00") @RequestParam BigDecimal max,
+            @PageableDefault(size = 10, sort = "price") Pageable pageable) {
+        return ResponseEntity.ok(productService.sliceByPriceRange(min, max, pageable));
+    }
+
+    @Operation(summary = "Filtrar productos por precio (cursor)",
+            description = "Igual que /filter/price pero con paginación keyset ordenada por precio")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos filtrados por precio correctamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    })
+    @QueryBudget(1)
+    @GetMapping("/filter/price/cursor")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollByPrice(
+            @Parameter(description = "Precio mínimo", example = "100.00") @RequestParam BigDecimal min,
+            @Parameter(description = "Precio máximo", example = "500.00") @RequestParam BigDecimal max,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(productService.scrollByPriceRange(min, max, cursor, size));
+    }
 }
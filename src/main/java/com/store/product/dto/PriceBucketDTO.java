@@ -0,0 +1,18 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * rango de precio {@code [from, to)} y cantidad de productos dentro.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class PriceBucketDTO {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+}
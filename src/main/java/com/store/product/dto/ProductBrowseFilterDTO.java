@@ -0,0 +1,21 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * filtros combinables de {@code /products/browse}; los {@code null} no filtran.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductBrowseFilterDTO {
+    private Long categoryId;
+    private Long subcategoryId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean inStock;
+    private String query;
+}
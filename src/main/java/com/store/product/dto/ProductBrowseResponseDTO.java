@@ -0,0 +1,18 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductBrowseResponseDTO {
+    private List<ProductResponseDTO> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private ProductFacetsDTO facets;
+}
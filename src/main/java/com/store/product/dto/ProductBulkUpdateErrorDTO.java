@@ -0,0 +1,13 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductBulkUpdateErrorDTO {
+    private Long id;
+    private String message;
+}
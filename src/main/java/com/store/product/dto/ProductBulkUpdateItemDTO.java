@@ -0,0 +1,28 @@
+package com.store.product.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * cambio de precio y/o stock de un producto dentro de una actualización masiva.
+ * <p>{@code stock} fija el valor absoluto y {@code stockDelta} lo suma o resta
+ * (reposición o ajuste); son excluyentes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateItemDTO {
+    @NotNull(message = "se requiere el ID del producto")
+    private Long id;
+    @DecimalMin(value = "0.0", inclusive = true, message = "el precio no puede ser negativo")
+    private BigDecimal price;
+    @Min(value = 0, message = "el stock no puede ser negativo")
+    private Integer stock;
+    private Integer stockDelta;
+}
@@ -0,0 +1,15 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductBulkUpdateReportDTO {
+    private int requested;
+    private int updated;
+    private List<ProductBulkUpdateErrorDTO> errors;
+}
@@ -0,0 +1,17 @@
+package com.store.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ProductBulkUpdateRequestDTO {
+    @NotEmpty(message = "se requiere al menos un producto")
+    @Size(max = 10000, message = "se admiten hasta 10000 productos por pedido")
+    private List<@Valid ProductBulkUpdateItemDTO> items;
+}
@@ -0,0 +1,23 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * conteos para la barra de filtros del storefront.
+ * <p>Cada faceta se cuenta con todos los filtros activos salvo el suyo
+ * (elegir una subcategoría no hace desaparecer a las demás de la lista).
+ * {@code total} sí aplica todos los filtros y es el total de la página.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductFacetsDTO {
+    private List<SubcategoryFacetDTO> subcategories;
+    private List<PriceBucketDTO> priceBuckets;
+    private long inStock;
+    private long outOfStock;
+    private long total;
+}
@@ -0,0 +1,13 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductImportErrorDTO {
+    private long line;
+    private String message;
+}
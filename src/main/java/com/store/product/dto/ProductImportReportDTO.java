@@ -0,0 +1,23 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * resultado de una importación masiva.
+ * <p>{@code errors} lista como máximo las primeras filas rechazadas;
+ * {@code failed} siempre tiene el total.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductImportReportDTO {
+    private long processed;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private List<ProductImportErrorDTO> errors;
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,14 @@
+package com.store.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class SubcategoryFacetDTO {
+    private Long subcategoryId;
+    private String subcategoryName;
+    private long count;
+}
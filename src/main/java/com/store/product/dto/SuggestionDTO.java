@@ -0,0 +1,15 @@
+package com.store.product.dto;
+
+import com.store.product.suggest.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String text;
+    private SuggestionType type;
+    private Long id;
+}
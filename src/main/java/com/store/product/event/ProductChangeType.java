@@ -0,0 +1,9 @@
+package com.store.product.event;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    STOCK_DECREASED, // solo bajó el stock (checkout)
+    BULK_IMPORTED // importación masiva: sin lista de productos, los listeners recargan todo
+}
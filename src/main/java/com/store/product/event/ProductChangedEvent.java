@@ -0,0 +1,39 @@
+package com.store.product.event;
+
+import com.store.product.dto.ProductResponseDTO;
+
+import java.util.List;
+
+/**
+ * evento publicado por las escrituras sobre productos.
+ * <p>Los listeners lo reciben luego del commit de la transacción
+ * ({@code @TransactionalEventListener}), por lo que las cachés e índices
+ * en memoria nunca ven datos que terminaron en rollback.
+ * <p>{@code products} contiene el estado posterior al cambio; en
+ * {@link ProductChangeType#DELETED} es el último estado conocido y en
+ * {@link ProductChangeType#BULK_IMPORTED} viene vacía.
+ */
+public record ProductChangedEvent(ProductChangeType type, List<ProductResponseDTO> products) {
+
+    public static ProductChangedEvent of(ProductChangeType type, ProductResponseDTO product) {
+        return new ProductChangedEvent(type, List.of(product));
+    }
+
+    public static ProductChangedEvent bulkImported() {
+        return new ProductChangedEvent(ProductChangeType.BULK_IMPORTED, List.of());
+    }
+
+    /**
+     * @return {@code true} si el cambio puede alterar qué productos aparecen en los
+     *         listados o los conteos por subcategoría: todo salvo un descuento de
+     *         stock que no agotó ningún producto
+     */
+    public boolean affectsListings() {
+        return type != ProductChangeType.STOCK_DECREASED ||
+                products.stream().anyMatch(p -> p.getStock() == null || p.getStock() <= 0);
+    }
+
+    public List<Long> productIds() {
+        return products.stream().map(ProductResponseDTO::getId).toList();
+    }
+}
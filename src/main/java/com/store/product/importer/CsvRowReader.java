@@ -0,0 +1,108 @@
+package com.store.product.importer;
+
+import com.store.exception.BusinessException;
+import com.store.product.dto.ProductRequestDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSV con encabezado ({@code name,price,description,url,stock,subcategoryId},
+ * en cualquier orden; {@code description} es opcional).
+ * <p>Campos entre comillas dobles con {@code ""} como escape; un registro por línea.
+ */
+final class CsvRowReader implements ImportRowReader {
+    private static final List<String> REQUIRED = List.of("name", "price", "url", "stock", "subcategoryid");
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long lineNumber;
+
+    CsvRowReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+
+        String header = reader.readLine();
+        lineNumber++;
+        if (header == null) throw new BusinessException("el archivo está vacío");
+
+        List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++)
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+
+        List<String> missing = REQUIRED.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) throw new BusinessException("faltan columnas en el encabezado: " + missing);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) return null;
+        } while (line.isBlank());
+
+        try {
+            List<String> values = split(line);
+            ProductRequestDTO product = new ProductRequestDTO();
+            product.setName(value(values, "name"));
+            product.setDescription(value(values, "description"));
+            product.setUrl(value(values, "url"));
+
+            String price = value(values, "price");
+            String stock = value(values, "stock");
+            String subcategory = value(values, "subcategoryid");
+            product.setPrice(price == null ? null : new BigDecimal(price));
+            product.setStock(stock == null ? null : Integer.valueOf(stock));
+            product.setSubcategoryId(subcategory == null ? null : Long.valueOf(subcategory));
+
+            return ImportRow.ok(lineNumber, product);
+        } catch (NumberFormatException e) {
+            return ImportRow.failed(lineNumber, "valor numérico inválido en price, stock o subcategoryId");
+        } catch (IllegalArgumentException e) {
+            return ImportRow.failed(lineNumber, e.getMessage());
+        }
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) return null;
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("comillas sin cerrar");
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,26 @@
+package com.store.product.importer;
+
+import com.store.exception.BusinessException;
+import org.springframework.http.MediaType;
+
+/**
+ * formatos aceptados por la importación masiva, según el {@code Content-Type}.
+ */
+public enum ImportFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final MediaType mediaType;
+
+    ImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public static ImportFormat fromContentType(String contentType) {
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for (ImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(requested)) return format;
+        }
+        throw new BusinessException("formato no soportado: " + contentType + " (usar text/csv o application/x-ndjson)");
+    }
+}
@@ -0,0 +1,18 @@
+package com.store.product.importer;
+
+import com.store.product.dto.ProductRequestDTO;
+
+/**
+ * fila leída del archivo: el producto, o el motivo por el que no se pudo leer.
+ * @param line número de línea en el archivo (1 = primera línea)
+ */
+record ImportRow(long line, ProductRequestDTO product, String error) {
+
+    static ImportRow ok(long line, ProductRequestDTO product) {
+        return new ImportRow(line, product, null);
+    }
+
+    static ImportRow failed(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+}
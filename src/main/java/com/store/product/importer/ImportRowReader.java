@@ -0,0 +1,14 @@
+package com.store.product.importer;
+
+import java.io.IOException;
+
+/**
+ * lector incremental de filas: nunca tiene más de una línea en memoria.
+ */
+interface ImportRowReader {
+
+    /**
+     * @return la siguiente fila, o {@code null} al terminar el archivo
+     */
+    ImportRow next() throws IOException;
+}
@@ -0,0 +1,39 @@
+package com.store.product.importer;
+
+import com.store.product.dto.ProductRequestDTO;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * un objeto JSON por línea con los mismos campos que {@code POST /admin/products};
+ * las líneas vacías se ignoran.
+ */
+final class NdjsonRowReader implements ImportRowReader {
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+
+    NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) return null;
+        } while (line.isBlank());
+
+        try {
+            return ImportRow.ok(lineNumber, objectMapper.readValue(line, ProductRequestDTO.class));
+        } catch (JacksonException e) {
+            return ImportRow.failed(lineNumber, "JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+}
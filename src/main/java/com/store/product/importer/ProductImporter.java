@@ -0,0 +1,136 @@
+package com.store.product.importer;
+
+import com.store.exception.BusinessException;
+import com.store.product.dto.ProductImportErrorDTO;
+import com.store.product.dto.ProductImportReportDTO;
+import com.store.product.dto.ProductRequestDTO;
+import com.store.product.event.ProductChangedEvent;
+import com.store.product.repository.ProductBulkRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * importación masiva de productos desde un stream CSV o NDJSON.
+ * <p>El archivo se lee línea a línea y se escribe en lotes de {@value #CHUNK_SIZE}
+ * filas, cada uno en su propia sentencia y commit: la memoria usada no depende
+ * del tamaño del archivo y un error en una fila no descarta el resto.
+ * <p>Por fila se valida lo mismo que en el alta individual; las subcategorías se
+ * resuelven contra un set cargado una sola vez por importación y los nombres
+ * duplicados (en el archivo o contra la base) se informan como errores de fila.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductImporter {
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ProductBulkRepository bulkRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @param body contenido del archivo (se consume en streaming)
+     * @param format formato del contenido
+     * @return resumen con los errores por línea
+     * @throws BusinessException si el archivo no se puede leer o el encabezado CSV es inválido
+     */
+    public ProductImportReportDTO importProducts(InputStream body, ImportFormat format) {
+        long start = System.currentTimeMillis();
+        Report report = new Report();
+        Set<Long> subcategoryIds = bulkRepository.findSubcategoryIds();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            ImportRowReader rows = format == ImportFormat.CSV
+                    ? new CsvRowReader(reader)
+                    : new NdjsonRowReader(reader, objectMapper);
+
+            List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            ImportRow row;
+            while ((row = rows.next()) != null) {
+                report.processed++;
+                String error = row.error() != null ? row.error() : validate(row.product(), subcategoryIds);
+                if (error != null) {
+                    report.fail(row.line(), error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) flush(chunk, report);
+            }
+            flush(chunk, report);
+        } catch (IOException e) {
+            throw new BusinessException("no se pudo leer el archivo: " + e.getMessage());
+        } finally {
+            // los lotes ya confirmados quedan en la base aunque la lectura falle a mitad de camino
+            if (report.imported > 0) eventPublisher.publishEvent(ProductChangedEvent.bulkImported());
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Importación de productos ({}): {} procesados, {} importados, {} con error en {} ms",
+                format, report.processed, report.imported, report.failed, elapsed);
+
+        return ProductImportReportDTO.builder()
+                .processed(report.processed)
+                .imported(report.imported)
+                .failed(report.failed)
+                .elapsedMillis(elapsed)
+                .errors(report.errors)
+                .errorsTruncated(report.failed > report.errors.size())
+                .build();
+    }
+
+    private String validate(ProductRequestDTO product, Set<Long> subcategoryIds) {
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(product);
+        if (!violations.isEmpty()) return violations.iterator().next().getMessage();
+
+        if (!subcategoryIds.contains(product.getSubcategoryId()))
+            return "la subcategoría ID " + product.getSubcategoryId() + " no existe";
+        return null;
+    }
+
+    private void flush(List<ImportRow> chunk, Report report) {
+        if (chunk.isEmpty()) return;
+
+        Map<String, ImportRow> byName = new LinkedHashMap<>();
+        for (ImportRow row : chunk) {
+            if (byName.putIfAbsent(row.product().getName(), row) != null)
+                report.fail(row.line(), "nombre repetido en el archivo: " + row.product().getName());
+        }
+
+        Set<String> inserted = bulkRepository.insertBatch(byName.values().stream().map(ImportRow::product).toList());
+        for (ImportRow row : byName.values()) {
+            if (inserted.contains(row.product().getName())) report.imported++;
+            else report.fail(row.line(), "ya existe un producto con el nombre: " + row.product().getName());
+        }
+        chunk.clear();
+    }
+
+    private static final class Report {
+        final List<ProductImportErrorDTO> errors = new ArrayList<>();
+        long processed;
+        long imported;
+        long failed;
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ProductImportErrorDTO(line, message));
+        }
+    }
+}
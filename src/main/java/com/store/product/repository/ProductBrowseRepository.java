@@ -0,0 +1,204 @@
+package com.store.product.repository;
+
+import com.store.exception.BusinessException;
+import com.store.product.dto.PriceBucketDTO;
+import com.store.product.dto.ProductBrowseFilterDTO;
+import com.store.product.dto.ProductFacetsDTO;
+import com.store.product.dto.ProductResponseDTO;
+import com.store.product.dto.SubcategoryFacetDTO;
+import com.store.product.search.FullTextProductSearch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * consultas de {@code /products/browse}: filtros combinados y facetas.
+ * <p>Las facetas salen de una única pasada agregada ({@code GROUPING SETS}
+ * con {@code count(*) FILTER}) y solo se agregan al SQL las condiciones de
+ * los filtros presentes, para que el planner use los índices que corresponden.
+ * La búsqueda por texto usa el {@code search_vector} de {@code db/sql/04_product_search.sql}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBrowseRepository {
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "p.id",
+            "name", "p.name",
+            "price", "p.price",
+            "stock", "p.stock");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // ancho de cada rango de la faceta de precio
+    @Value("${store.browse.price-bucket-width}")
+    private BigDecimal bucketWidth;
+
+    /**
+     * @param filter filtros activos
+     * @return facetas por subcategoría, rango de precio y stock, más el total filtrado
+     */
+    public ProductFacetsDTO facets(ProductBrowseFilterDTO filter) {
+        Conditions where = Conditions.of(filter);
+        where.params.addValue("bucketWidth", bucketWidth);
+
+        String sql = """
+                WITH base AS (
+                    SELECT p.subcategory_id, s.name AS subcategory_name,
+                           floor(p.price / :bucketWidth) AS bucket, p.stock > 0 AS in_stock,
+                           %s AS sub_ok, %s AS price_ok, %s AS stock_ok
+                    FROM products p
+                    LEFT JOIN subcategories s ON s.id = p.subcategory_id
+                    WHERE %s
+                )
+                SELECT GROUPING(subcategory_id, subcategory_name) = 0 AS by_subcategory,
+                       GROUPING(bucket) = 0 AS by_price,
+                       GROUPING(in_stock) = 0 AS by_stock,
+                       subcategory_id, subcategory_name, bucket, in_stock,
+                       count(*) FILTER (WHERE price_ok AND stock_ok) AS subcategory_count,
+                       count(*) FILTER (WHERE sub_ok AND stock_ok) AS price_count,
+                       count(*) FILTER (WHERE sub_ok AND price_ok) AS stock_count,
+                       count(*) FILTER (WHERE sub_ok AND price_ok AND stock_ok) AS total
+                FROM base
+                GROUP BY GROUPING SETS ((subcategory_id, subcategory_name), (bucket), (in_stock), ())
+                ORDER BY subcategory_name, bucket
+                """.formatted(where.subcategory, where.price, where.stock, where.common);
+
+        List<SubcategoryFacetDTO> subcategories = new ArrayList<>();
+        List<PriceBucketDTO> buckets = new ArrayList<>();
+        long[] stock = new long[3]; // en stock, sin stock, total
+
+        jdbcTemplate.query(sql, where.params, rs -> {
+            if (rs.getBoolean("by_subcategory")) {
+                long count = rs.getLong("subcategory_count");
+                if (count > 0 && rs.getObject("subcategory_id") != null)
+                    subcategories.add(new SubcategoryFacetDTO(rs.getLong("subcategory_id"),
+                            rs.getString("subcategory_name"), count));
+            } else if (rs.getBoolean("by_price")) {
+                long count = rs.getLong("price_count");
+                BigDecimal bucket = rs.getBigDecimal("bucket");
+                if (count > 0 && bucket != null) {
+                    BigDecimal from = bucket.multiply(bucketWidth);
+                    buckets.add(new PriceBucketDTO(from, from.add(bucketWidth), count));
+                }
+            } else if (rs.getBoolean("by_stock")) {
+                stock[rs.getBoolean("in_stock") ? 0 : 1] = rs.getLong("stock_count");
+            } else {
+                stock[2] = rs.getLong("total");
+            }
+        });
+
+        return ProductFacetsDTO.builder()
+                .subcategories(subcategories)
+                .priceBuckets(buckets)
+                .inStock(stock[0])
+                .outOfStock(stock[1])
+                .total(stock[2])
+                .build();
+    }
+
+    /**
+     * @param filter filtros activos
+     * @param pageable página y orden ({@code id}, {@code name}, {@code price}, {@code stock});
+     *                 sin orden y con texto, ordena por relevancia
+     * @return productos de la página pedida
+     * @throws BusinessException si se pide ordenar por una propiedad no soportada
+     */
+    public List<ProductResponseDTO> page(ProductBrowseFilterDTO filter, Pageable pageable) {
+        Conditions where = Conditions.of(filter);
+        where.params.addValue("limit", pageable.getPageSize());
+        where.params.addValue("offset", pageable.getOffset());
+
+        String sql = """
+                SELECT p.id, p.name, p.price, p.description, p.url, p.stock,
+                       s.id AS subcategory_id, s.name AS subcategory_name, c.name AS category_name
+                FROM products p
+                LEFT JOIN subcategories s ON s.id = p.subcategory_id
+                LEFT JOIN categories c ON c.id = s.category_id
+                WHERE %s AND %s AND %s AND %s
+                ORDER BY %s
+                LIMIT :limit OFFSET :offset
+                """.formatted(where.common, where.subcategory, where.price, where.stock, orderBy(pageable.getSort(), where));
+
+        return jdbcTemplate.query(sql, where.params, (rs, rowNum) -> ProductResponseDTO.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .price(rs.getBigDecimal("price"))
+                .description(rs.getString("description"))
+                .url(rs.getString("url"))
+                .stock(rs.getInt("stock"))
+                .subcategoryId(rs.getObject("subcategory_id", Long.class))
+                .subcategoryName(rs.getString("subcategory_name"))
+                .categoryName(rs.getString("category_name"))
+                .build());
+    }
+
+    private static String orderBy(Sort sort, Conditions where) {
+        if (sort.isUnsorted()) {
+            return where.params.hasValue("tsQuery")
+                    ? "ts_rank(p.search_vector, to_tsquery('store_es', :tsQuery)) + word_similarity(:text, p.name) DESC, p.id"
+                    : "p.name, p.id";
+        }
+
+        StringJoiner order = new StringJoiner(", ");
+        for (Sort.Order o : sort) {
+            String column = SORTABLE.get(o.getProperty());
+            if (column == null) throw new BusinessException("no se puede ordenar por: " + o.getProperty());
+            order.add(column + (o.isAscending() ? " ASC" : " DESC"));
+        }
+        return order + ", p.id";
+    }
+
+    /**
+     * condiciones SQL por dimensión: {@code common} se aplica siempre (categoría
+     * y texto); el resto se evalúa por separado para las facetas.
+     */
+    private record Conditions(String common, String subcategory, String price, String stock,
+                              MapSqlParameterSource params) {
+        static Conditions of(ProductBrowseFilterDTO filter) {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+
+            StringJoiner common = new StringJoiner(" AND ").setEmptyValue("true");
+            if (filter.getCategoryId() != null) {
+                common.add("s.category_id = :categoryId");
+                params.addValue("categoryId", filter.getCategoryId());
+            }
+            String tsQuery = filter.getQuery() == null ? "" : FullTextProductSearch.toTsQuery(filter.getQuery());
+            if (!tsQuery.isEmpty()) {
+                common.add("(p.search_vector @@ to_tsquery('store_es', :tsQuery) OR :text <% p.name)");
+                params.addValue("tsQuery", tsQuery);
+                params.addValue("text", filter.getQuery().trim());
+            }
+
+            String subcategory = "true";
+            if (filter.getSubcategoryId() != null) {
+                subcategory = "p.subcategory_id = :subcategoryId";
+                params.addValue("subcategoryId", filter.getSubcategoryId());
+            }
+
+            StringJoiner price = new StringJoiner(" AND ", "(", ")").setEmptyValue("true");
+            if (filter.getMinPrice() != null) {
+                price.add("p.price >= :minPrice");
+                params.addValue("minPrice", filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                price.add("p.price <= :maxPrice");
+                params.addValue("maxPrice", filter.getMaxPrice());
+            }
+
+            String stock = filter.getInStock() == null ? "true"
+                    : filter.getInStock() ? "p.stock > 0" : "p.stock <= 0";
+
+            return new Conditions(common.toString(), subcategory, price.toString(), stock, params);
+        }
+    }
+}
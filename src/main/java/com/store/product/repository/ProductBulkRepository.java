@@ -0,0 +1,143 @@
+package com.store.product.repository;
+
+import com.store.product.dto.ProductBulkUpdateItemDTO;
+import com.store.product.dto.ProductRequestDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * escrituras masivas de productos con JDBC plano.
+ * <p>Cada lote se inserta con una única sentencia {@code INSERT ... SELECT FROM unnest(...)}
+ * (una fila por posición de los arreglos): un round trip por lote en lugar
+ * de uno por producto, sin el ciclo de vida de entidades de JPA.
+ * Las actualizaciones masivas siguen la misma idea con {@code UPDATE ... FROM unnest(...)}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBulkRepository {
+    private static final String INSERT_BATCH = """
+            INSERT INTO products (name, price, description, url, stock, subcategory_id)
+            SELECT * FROM unnest(?::varchar[], ?::numeric[], ?::text[], ?::text[], ?::int[], ?::bigint[])
+            ON CONFLICT (name) DO NOTHING
+            RETURNING name
+            """;
+
+    /*
+     * stock: absoluto si viene, si no stock + delta; un delta que dejaría el stock
+     * en negativo descarta la fila (mismo criterio que decreaseStock). Las filas se
+     * bloquean primero en orden de ID, igual que los descuentos de stock del checkout:
+     * el orden del arreglo no decide qué fila bloquea primero el UPDATE, el plan sí.
+     */
+    private static final String UPDATE_BATCH = """
+            WITH u AS (
+                SELECT * FROM unnest(?::bigint[], ?::numeric[], ?::int[], ?::int[]) AS u(id, price, stock, stock_delta)
+            ), locked AS (
+                SELECT p.id FROM products p
+                WHERE p.id IN (SELECT id FROM u)
+                ORDER BY p.id
+                FOR UPDATE
+            )
+            UPDATE products p
+            SET price = COALESCE(u.price, p.price),
+                stock = COALESCE(u.stock, p.stock + COALESCE(u.stock_delta, 0))
+            FROM u
+            WHERE p.id = u.id
+              AND p.id IN (SELECT id FROM locked)
+              AND (u.stock IS NOT NULL OR p.stock + COALESCE(u.stock_delta, 0) >= 0)
+            RETURNING p.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Set<Long> findSubcategoryIds() {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM subcategories", Long.class));
+    }
+
+    /**
+     * inserta el lote en una sola sentencia (atómica por sí misma).
+     * @param products productos ya validados, sin nombres repetidos dentro del lote
+     * @return nombres efectivamente insertados; los que falten ya existían
+     */
+    public Set<String> insertBatch(List<ProductRequestDTO> products) {
+        Set<String> inserted = new HashSet<>();
+        jdbcTemplate.query(connection -> prepareInsert(connection, products),
+                rs -> { inserted.add(rs.getString(1)); });
+        return inserted;
+    }
+
+    /**
+     * aplica precio/stock a todo el lote en una sola sentencia.
+     * @param items cambios, sin IDs repetidos
+     * @return IDs actualizados; los que falten no existen o quedarían con stock negativo
+     */
+    public Set<Long> updateBatch(List<ProductBulkUpdateItemDTO> items) {
+        Set<Long> updated = new HashSet<>();
+        jdbcTemplate.query(connection -> prepareUpdate(connection, items),
+                rs -> { updated.add(rs.getLong(1)); });
+        return updated;
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return new HashSet<>(jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement("SELECT id FROM products WHERE id = ANY(?)");
+                    ps.setArray(1, connection.createArrayOf("int8", ids.toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> rs.getLong(1)));
+    }
+
+    private static PreparedStatement prepareUpdate(Connection connection, List<ProductBulkUpdateItemDTO> items)
+            throws SQLException {
+        int n = items.size();
+        Object[] ids = new Object[n], prices = new Object[n], stocks = new Object[n], deltas = new Object[n];
+        for (int i = 0; i < n; i++) {
+            ProductBulkUpdateItemDTO item = items.get(i);
+            ids[i] = item.getId();
+            prices[i] = item.getPrice();
+            stocks[i] = item.getStock();
+            deltas[i] = item.getStockDelta();
+        }
+
+        PreparedStatement ps = connection.prepareStatement(UPDATE_BATCH);
+        ps.setArray(1, connection.createArrayOf("int8", ids));
+        ps.setArray(2, connection.createArrayOf("numeric", prices));
+        ps.setArray(3, connection.createArrayOf("int4", stocks));
+        ps.setArray(4, connection.createArrayOf("int4", deltas));
+        return ps;
+    }
+
+    private static PreparedStatement prepareInsert(Connection connection, List<ProductRequestDTO> products)
+            throws SQLException {
+        int n = products.size();
+        Object[] names = new Object[n], prices = new Object[n], descriptions = new Object[n],
+                urls = new Object[n], stocks = new Object[n], subcategories = new Object[n];
+        for (int i = 0; i < n; i++) {
+            ProductRequestDTO product = products.get(i);
+            names[i] = product.getName();
+            prices[i] = product.getPrice();
+            descriptions[i] = product.getDescription();
+            urls[i] = product.getUrl();
+            stocks[i] = product.getStock();
+            subcategories[i] = product.getSubcategoryId();
+        }
+
+        PreparedStatement ps = connection.prepareStatement(INSERT_BATCH);
+        ps.setArray(1, connection.createArrayOf("varchar", names));
+        ps.setArray(2, connection.createArrayOf("numeric", prices));
+        ps.setArray(3, connection.createArrayOf("text", descriptions));
+        ps.setArray(4, connection.createArrayOf("text", urls));
+        ps.setArray(5, connection.createArrayOf("int4", stocks));
+        ps.setArray(6, connection.createArrayOf("int8", subcategories));
+        return ps;
+    }
+}
@@ -1,33 +1,124 @@
 package com.store.product.repository;
 
+import com.store.product.dto.ProductResponseDTO;
 import com.store.product.entity.ProductEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<ProductEntity,Long> {
 
     boolean existsByName(String name);
 
+    long countByStockEquals(int stock);
+
+    /*
+     * ---- VISTAS DE LECTURA (listados y detalle) ----
+     * una sola consulta con LEFT JOIN a subcategoría y categoría, proyectada
+     * directo al DTO: no se cargan entidades administradas ni se disparan los
+     * SELECT por subcategoría/categoría de los @ManyToOne EAGER.
+     */
+    String PRODUCT_VIEW = """
+            SELECT new com.store.product.dto.ProductResponseDTO(
+                p.id, p.name, p.price, p.description, p.url, p.stock, s.id, s.name, c.name)
+            FROM ProductEntity p LEFT JOIN p.subcategory s LEFT JOIN s.category c
+            """;
+
+    @Query(PRODUCT_VIEW + "WHERE p.id = :id")
+    Optional<ProductResponseDTO> findViewById(@Param("id") Long id);
+
+    @Query(PRODUCT_VIEW + "WHERE p.id IN :ids")
+    List<ProductResponseDTO> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // carga completa de índices en memoria: keyset por id (sin OFFSET)
+    @Query(PRODUCT_VIEW + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductResponseDTO> findViewsAfterId(@Param("afterId") long afterId, Limit limit);
+
+    // exportación: cursor forward-only, proyectado a DTO (nada queda en el contexto de persistencia)
+    @Query(PRODUCT_VIEW + "ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<ProductResponseDTO> streamViews();
+
+    @Query(value = PRODUCT_VIEW, countQuery = "SELECT count(p) FROM ProductEntity p")
+    Page<ProductResponseDTO> findViews(Pageable pageable);
+
     // por subcategoría
-    Page<ProductEntity> findBySubcategoryId(Long subcategoryId, Pageable pageable);
+    @Query(value = PRODUCT_VIEW + "WHERE s.id = :subcategoryId",
+            countQuery = "SELECT count(p) FROM ProductEntity p WHERE p.subcategory.id = :subcategoryId")
+    Page<ProductResponseDTO> findViewsBySubcategory(@Param("subcategoryId") Long subcategoryId, Pageable pageable);
 
     // por categoría (de subcategoría)
-    Page<ProductEntity> findBySubcategoryCategoryId(Long categoryId, Pageable pageable);
-
+    @Query(value = PRODUCT_VIEW + "WHERE c.id = :categoryId",
+            countQuery = "SELECT count(p) FROM ProductEntity p WHERE p.subcategory.category.id = :categoryId")
+    Page<ProductResponseDTO> findViewsByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
 
     // por rango de precios
-    Page<ProductEntity> findByPriceBetween(BigDecimal min, BigDecimal max, Pageable pageable);
+    @Query(value = PRODUCT_VIEW + "WHERE p.price BETWEEN :min AND :max",
+            countQuery = "SELECT count(p) FROM ProductEntity p WHERE p.price BETWEEN :min AND :max")
+    Page<ProductResponseDTO> findViewsByPriceBetween(@Param("min") BigDecimal min, @Param("max") BigDecimal max,
+                                                     Pageable pageable);
 
     // con stock mayor que
-    Page<ProductEntity> findByStockGreaterThan(int stock, Pageable pageable);
+    @Query(value = PRODUCT_VIEW + "WHERE p.stock > :stock",
+            countQuery = "SELECT count(p) FROM ProductEntity p WHERE p.stock > :stock")
+    Page<ProductResponseDTO> findViewsByStockGreaterThan(@Param("stock") int stock, Pageable pageable);
 
     // sin stock
-    Page<ProductEntity> findByStockEquals(int stock, Pageable pageable);
+    @Query(value = PRODUCT_VIEW + "WHERE p.stock = :stock",
+            countQuery = "SELECT count(p) FROM ProductEntity p WHERE p.stock = :stock")
+    Page<ProductResponseDTO> findViewsByStockEquals(@Param("stock") int stock, Pageable pageable);
+
+    // ---- SLICE (sin COUNT: trae un elemento de más para saber si hay siguiente) ----
+    @Query(PRODUCT_VIEW)
+    Slice<ProductResponseDTO> sliceViews(Pageable pageable);
+
+    @Query(PRODUCT_VIEW + "WHERE c.id = :categoryId")
+    Slice<ProductResponseDTO> sliceViewsByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query(PRODUCT_VIEW + "WHERE p.price BETWEEN :min AND :max")
+    Slice<ProductResponseDTO> sliceViewsByPriceBetween(@Param("min") BigDecimal min, @Param("max") BigDecimal max,
+                                                       Pageable pageable);
+
+    @Query(PRODUCT_VIEW + "WHERE p.stock > :stock")
+    Slice<ProductResponseDTO> sliceViewsByStockGreaterThan(@Param("stock") int stock, Pageable pageable);
+
+    @Query(PRODUCT_VIEW + "WHERE p.stock = :stock")
+    Slice<ProductResponseDTO> sliceViewsByStockEquals(@Param("stock") int stock, Pageable pageable);
+
+    // ---- KEYSET (scroll por cursor, sin OFFSET ni COUNT) ----
+    // el scroll solo admite consultas derivadas: el entity graph trae subcategoría y categoría en el mismo JOIN
+    @EntityGraph(attributePaths = {"subcategory", "subcategory.category"})
+    Window<ProductEntity> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"subcategory", "subcategory.category"})
+    Window<ProductEntity> findByStockGreaterThan(int stock, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"subcategory", "subcategory.category"})
+    Window<ProductEntity> findBySubcategoryId(Long subcategoryId, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"subcategory", "subcategory.category"})
+    Window<ProductEntity> findBySubcategoryCategoryId(Long categoryId, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = {"subcategory", "subcategory.category"})
+    Window<ProductEntity> findByPriceBetween(BigDecimal min, BigDecimal max, ScrollPosition position, Sort sort, Limit limit);
 
     // para ADMIN
     @Query(value = "SELECT * FROM products p WHERE p.name ~* :regex", nativeQuery = true)
@@ -37,7 +128,22 @@ public interface ProductRepository extends JpaRepository<ProductEntity,Long> {
     @Query(value = "SELECT * FROM products p WHERE p.name ~* :regex AND p.stock > 0", nativeQuery = true)
     Page<ProductEntity> searchByNameRegexAvailable(@Param("regex") String regex, Pageable pageable);
 
-    @Modifying
-    @Query("UPDATE ProductEntity p SET p.stock = p.stock - :qty WHERE p.id = :id AND p.stock >= :qty")
-    int decreaseStock(@Param("id") Long id, @Param("qty") int qty);
+    // BUSQUEDA FULL-TEXT (indices GIN de db/sql/04_product_search.sql), ordenada por relevancia
+    @Query(value = """
+            SELECT p.* FROM products p
+            WHERE (p.search_vector @@ to_tsquery('store_es', :query) OR :text <% p.name)
+              AND (:onlyAvailable = false OR p.stock > 0)
+            ORDER BY ts_rank(p.search_vector, to_tsquery('store_es', :query))
+                     + word_similarity(:text, p.name) DESC, p.id
+            """,
+            countQuery = """
+            SELECT count(*) FROM products p
+            WHERE (p.search_vector @@ to_tsquery('store_es', :query) OR :text <% p.name)
+              AND (:onlyAvailable = false OR p.stock > 0)
+            """,
+            nativeQuery = true)
+    Page<ProductEntity> searchFullText(@Param("query") String tsQuery,
+                                       @Param("text") String text,
+                                       @Param("onlyAvailable") boolean onlyAvailable,
+                                       Pageable pageable);
 }
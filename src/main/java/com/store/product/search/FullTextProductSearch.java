@@ -0,0 +1,62 @@
+package com.store.product.search;
+
+import com.store.product.dto.ProductResponseDTO;
+import com.store.product.mapper.ProductMapper;
+import com.store.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * búsqueda indexada sobre PostgreSQL: {@code tsvector} (nombre + descripción)
+ * y trigramas sobre el nombre para tolerar errores de tipeo.
+ * <p>Los resultados se ordenan por relevancia, por lo que se ignora el
+ * {@code sort} recibido en el {@link Pageable}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "store.search.engine", havingValue = "fulltext", matchIfMissing = true)
+public class FullTextProductSearch implements ProductSearchEngine {
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    @Override
+    public Page<ProductResponseDTO> search(String text, boolean onlyAvailable, Pageable pageable) {
+        String tsQuery = toTsQuery(text);
+        if (tsQuery.isEmpty()) return Page.empty(pageable);
+
+        Pageable byRelevance = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+
+        return productRepository
+                .searchFullText(tsQuery, text.trim(), onlyAvailable, byRelevance)
+                .map(productMapper::entityToDto);
+    }
+
+    /**
+     * arma un {@code tsquery} seguro a partir del texto libre.
+     * <p>Cada palabra se limpia de operadores y se combina con {@code |}
+     * (cualquiera de las palabras, igual que la búsqueda por regex).
+     * La última palabra se busca por prefijo ({@code :*}) para que funcione
+     * mientras el usuario escribe.
+     * @param text texto ingresado por el usuario
+     * @return tsquery listo para {@code to_tsquery}, o vacío si no quedan palabras
+     */
+    public static String toTsQuery(String text) {
+        String[] words = Arrays.stream(Normalizer.normalize(text, Normalizer.Form.NFC).split("\\s+"))
+                .map(word -> word.replaceAll("[^\\p{L}\\p{N}]", ""))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+
+        if (words.length == 0) return "";
+
+        words[words.length - 1] = words[words.length - 1] + ":*";
+        return Arrays.stream(words).collect(Collectors.joining(" | "));
+    }
+}
@@ -0,0 +1,230 @@
+package com.store.product.search;
+
+import com.store.product.dto.ProductResponseDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * índice invertido en memoria sobre nombre y descripción de productos.
+ * <p>Cada producto recibe un ID interno ({@code int}) que se usa en las
+ * listas de posteo primitivas; los IDs de productos eliminados se reutilizan.
+ * <p>Consultas soportadas:
+ * <ul>
+ *   <li>AND por defecto ("yerba organica"); OR con {@code |} u {@code OR}.</li>
+ *   <li>prefijo en cada palabra ("yer" encuentra "yerba").</li>
+ *   <li>tolerancia a errores de tipeo (1 edición desde 4 letras, 2 desde 8)
+ *       cuando la palabra no existe ni como prefijo.</li>
+ * </ul>
+ * el ranking suma, por palabra, peso del campo (nombre &gt; descripción) x idf,
+ * penalizando las coincidencias por prefijo y aproximadas.
+ * <p>Thread-safe: lecturas concurrentes, escrituras exclusivas.
+ */
+final class InMemoryProductIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<Long, Integer> docIdsByProduct = new HashMap<>();
+    private ProductResponseDTO[] docs = new ProductResponseDTO[1024];
+    private String[][] docTerms = new String[1024][];
+    private int[] freeDocIds = new int[16];
+    private int freeCount;
+    private int nextDocId;
+
+    /**
+     * reemplaza el índice completo (arranque o importaciones masivas).
+     */
+    void rebuild(List<ProductResponseDTO> products) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            docIdsByProduct.clear();
+            docs = new ProductResponseDTO[Math.max(1024, products.size())];
+            docTerms = new String[docs.length][];
+            freeCount = 0;
+            nextDocId = 0;
+            products.forEach(this::indexUnlocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void upsert(ProductResponseDTO product) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            indexUnlocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * actualiza los datos mostrados (stock, precio) sin reindexar términos.
+     */
+    void refresh(ProductResponseDTO product) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByProduct.get(product.getId());
+            if (docId != null) docs[docId] = product;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param text consulta libre
+     * @param onlyAvailable descarta productos sin stock
+     * @return todos los productos que coinciden, del más al menos relevante
+     */
+    List<ProductResponseDTO> search(String text, boolean onlyAvailable) {
+        boolean or = false;
+        List<String> words = new ArrayList<>();
+        for (String raw : text.trim().split("\\s+")) {
+            if (raw.equals("|") || raw.equals("OR")) or = true;
+            else if (!raw.equals("&") && !raw.equals("AND")) words.addAll(SearchTextNormalizer.tokenize(raw));
+        }
+        if (words.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            ScoredDocs result = null;
+            for (String word : new LinkedHashSet<>(words)) {
+                ScoredDocs matches = matchWord(word);
+                if (result == null) result = matches;
+                else result = or ? result.unionSum(matches) : result.intersectSum(matches);
+                if (!or && result.size == 0) return List.of();
+            }
+
+            List<Hit> hits = new ArrayList<>(result.size);
+            for (int i = 0; i < result.size; i++) {
+                ProductResponseDTO product = docs[result.ids[i]];
+                if (onlyAvailable && (product.getStock() == null || product.getStock() <= 0)) continue;
+                hits.add(new Hit(product, result.scores[i]));
+            }
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(hit -> hit.product().getName(), Comparator.nullsLast(Comparator.naturalOrder())));
+
+            return hits.stream().map(Hit::product).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ------------------ métodos internos (con el lock tomado) ------------------ */
+
+    private ScoredDocs matchWord(String word) {
+        ScoredDocs matches = ScoredDocs.EMPTY;
+
+        PostingList exact = terms.get(word);
+        if (exact != null) matches = ScoredDocs.of(exact, idf(exact));
+
+        int expansions = 0;
+        NavigableMap<String, PostingList> prefixed = terms.subMap(word, false, word + Character.MAX_VALUE, false);
+        for (PostingList postings : prefixed.values()) {
+            if (++expansions > MAX_EXPANSIONS) break;
+            matches = matches.unionMax(ScoredDocs.of(postings, idf(postings) * PREFIX_FACTOR));
+        }
+        if (matches.size > 0) return matches;
+
+        int maxEdits = word.length() >= 8 ? 2 : word.length() >= 4 ? 1 : 0;
+        if (maxEdits == 0) return matches;
+
+        for (Map.Entry<String, PostingList> entry : terms.entrySet()) {
+            String term = entry.getKey();
+            if (Math.abs(term.length() - word.length()) > maxEdits) continue;
+            if (withinEditDistance(word, term, maxEdits)) {
+                PostingList postings = entry.getValue();
+                matches = matches.unionMax(ScoredDocs.of(postings, idf(postings) * FUZZY_FACTOR));
+            }
+        }
+        return matches;
+    }
+
+    private float idf(PostingList postings) {
+        return (float) Math.log(1 + (double) docIdsByProduct.size() / postings.size());
+    }
+
+    private void indexUnlocked(ProductResponseDTO product) {
+        int docId = freeCount > 0 ? freeDocIds[--freeCount] : nextDocId++;
+        if (docId >= docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+            docTerms = Arrays.copyOf(docTerms, docs.length);
+        }
+
+        Map<String, Integer> weights = new HashMap<>();
+        SearchTextNormalizer.tokenize(product.getName()).forEach(t -> weights.merge(t, NAME_WEIGHT, Integer::sum));
+        SearchTextNormalizer.tokenize(product.getDescription()).forEach(t -> weights.merge(t, DESCRIPTION_WEIGHT, Integer::sum));
+
+        weights.forEach((term, weight) -> terms.computeIfAbsent(term, k -> new PostingList()).add(docId, weight));
+
+        docs[docId] = product;
+        docTerms[docId] = weights.keySet().toArray(String[]::new);
+        docIdsByProduct.put(product.getId(), docId);
+    }
+
+    private void removeUnlocked(Long productId) {
+        Integer docId = docIdsByProduct.remove(productId);
+        if (docId == null) return;
+
+        for (String term : docTerms[docId]) {
+            PostingList postings = terms.get(term);
+            postings.remove(docId);
+            if (postings.size() == 0) terms.remove(term);
+        }
+        docs[docId] = null;
+        docTerms[docId] = null;
+
+        if (freeCount == freeDocIds.length) freeDocIds = Arrays.copyOf(freeDocIds, freeCount * 2);
+        freeDocIds[freeCount++] = docId;
+    }
+
+    /**
+     * Levenshtein acotado: corta apenas toda la fila supera {@code max}.
+     */
+    static boolean withinEditDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return false;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max;
+    }
+
+    private record Hit(ProductResponseDTO product, float score) {}
+}
@@ -0,0 +1,87 @@
+package com.store.product.search;
+
+import com.store.category.event.CategoryChangedEvent;
+import com.store.product.dto.ProductResponseDTO;
+import com.store.product.event.ProductChangedEvent;
+import com.store.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * motor de búsqueda embebido: atiende {@code /products/search} desde un
+ * índice invertido en memoria, sin consultar PostgreSQL.
+ * <p>El índice se construye al iniciar (antes de abrir el puerto HTTP) y se
+ * mantiene al día con los {@link ProductChangedEvent} luego de cada commit; los
+ * {@link CategoryChangedEvent} lo reconstruyen, porque cada producto indexado lleva
+ * el nombre de su subcategoría y categoría.
+ * se activa con {@code store.search.engine=memory}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "store.search.engine", havingValue = "memory")
+public class InMemoryProductSearch implements ProductSearchEngine, SmartInitializingSingleton {
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final InMemoryProductIndex index = new InMemoryProductIndex();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * recarga el índice completo desde la base, en lotes.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<ProductResponseDTO> products = new ArrayList<>();
+
+        List<ProductResponseDTO> batch;
+        do {
+            long lastId = products.isEmpty() ? 0 : products.getLast().getId();
+            batch = productRepository.findViewsAfterId(lastId, Limit.of(LOAD_BATCH_SIZE));
+            products.addAll(batch);
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        index.rebuild(products);
+        log.info("Índice de búsqueda en memoria construido: {} productos en {} ms",
+                products.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public Page<ProductResponseDTO> search(String text, boolean onlyAvailable, Pageable pageable) {
+        List<ProductResponseDTO> hits = index.search(text, onlyAvailable);
+
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        return new PageImpl<>(hits.subList(from, to), pageable, hits.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> event.products().forEach(index::upsert);
+            case STOCK_DECREASED -> event.products().forEach(index::refresh);
+            case DELETED -> event.productIds().forEach(index::remove);
+            case BULK_IMPORTED -> rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+}
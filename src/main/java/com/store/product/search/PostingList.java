@@ -0,0 +1,58 @@
+package com.store.product.search;
+
+import java.util.Arrays;
+
+/**
+ * lista de posteo de un término: IDs internos de documento ordenados
+ * y su peso, en arreglos primitivos paralelos (sin boxing).
+ */
+final class PostingList {
+    private int[] docIds = new int[4];
+    private int[] weights = new int[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int docId(int i) {
+        return docIds[i];
+    }
+
+    int weight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * agrega o suma peso a un documento manteniendo el orden.
+     * <p>Los IDs nuevos casi siempre son mayores que el último, por lo que
+     * el caso común es un append en O(1).
+     */
+    void add(int docId, int weight) {
+        int pos = size > 0 && docIds[size - 1] < docId ? -(size + 1) : Arrays.binarySearch(docIds, 0, size, docId);
+        if (pos >= 0) {
+            weights[pos] += weight;
+            return;
+        }
+
+        int insertAt = -(pos + 1);
+        if (size == docIds.length) {
+            docIds = Arrays.copyOf(docIds, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(docIds, insertAt, docIds, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        docIds[insertAt] = docId;
+        weights[insertAt] = weight;
+        size++;
+    }
+
+    void remove(int docId) {
+        int pos = Arrays.binarySearch(docIds, 0, size, docId);
+        if (pos < 0) return;
+
+        System.arraycopy(docIds, pos + 1, docIds, pos, size - pos - 1);
+        System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+        size--;
+    }
+}
@@ -0,0 +1,20 @@
+package com.store.product.search;
+
+import com.store.product.dto.ProductResponseDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * estrategia de búsqueda de productos por texto.
+ * <p>La implementación activa se elige con {@code store.search.engine}.
+ */
+public interface ProductSearchEngine {
+
+    /**
+     * @param text texto ingresado por el usuario (nunca vacío)
+     * @param onlyAvailable si es {@code true} solo devuelve productos con stock
+     * @param pageable información de paginación
+     * @return página de productos que coinciden con la búsqueda
+     */
+    Page<ProductResponseDTO> search(String text, boolean onlyAvailable, Pageable pageable);
+}
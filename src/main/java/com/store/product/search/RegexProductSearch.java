@@ -0,0 +1,36 @@
+package com.store.product.search;
+
+import com.store.product.dto.ProductResponseDTO;
+import com.store.product.entity.ProductEntity;
+import com.store.product.mapper.ProductMapper;
+import com.store.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * búsqueda original basada en expresiones regulares de PostgreSQL ({@code ~*}).
+ * <p>No usa índices: recorre toda la tabla en cada consulta.
+ * se conserva para entornos sin {@code db/sql/04_product_search.sql}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "store.search.engine", havingValue = "regex")
+public class RegexProductSearch implements ProductSearchEngine {
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    @Override
+    public Page<ProductResponseDTO> search(String text, boolean onlyAvailable, Pageable pageable) {
+        // cualquiera de las palabras: "mate calabaza" -> "mate|calabaza"
+        String regex = text.trim().replaceAll("\\s+", "|");
+
+        Page<ProductEntity> result = onlyAvailable
+                ? productRepository.searchByNameRegexAvailable(regex, pageable)
+                : productRepository.searchByNameRegexAny(regex, pageable);
+
+        return result.map(productMapper::entityToDto);
+    }
+}
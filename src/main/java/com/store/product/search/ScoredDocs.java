@@ -0,0 +1,83 @@
+package com.store.product.search;
+
+/**
+ * conjunto de documentos con puntaje, ordenado por ID interno.
+ * <p>Permite combinar resultados con merges lineales (AND = intersección,
+ * OR = unión) sin estructuras intermedias por documento.
+ */
+final class ScoredDocs {
+    static final ScoredDocs EMPTY = new ScoredDocs(new int[0], new float[0], 0);
+
+    final int[] ids;
+    final float[] scores;
+    final int size;
+
+    private ScoredDocs(int[] ids, float[] scores, int size) {
+        this.ids = ids;
+        this.scores = scores;
+        this.size = size;
+    }
+
+    static ScoredDocs of(PostingList postings, float factor) {
+        int[] ids = new int[postings.size()];
+        float[] scores = new float[postings.size()];
+        for (int i = 0; i < postings.size(); i++) {
+            ids[i] = postings.docId(i);
+            scores[i] = postings.weight(i) * factor;
+        }
+        return new ScoredDocs(ids, scores, ids.length);
+    }
+
+    /**
+     * unión quedándose con el mejor puntaje de cada documento
+     * (un término que matchea por exacto y por prefijo no cuenta doble).
+     */
+    ScoredDocs unionMax(ScoredDocs other) {
+        return union(other, true);
+    }
+
+    /**
+     * unión sumando puntajes: los documentos que contienen más palabras
+     * de la consulta quedan primero.
+     */
+    ScoredDocs unionSum(ScoredDocs other) {
+        return union(other, false);
+    }
+
+    ScoredDocs intersectSum(ScoredDocs other) {
+        int[] outIds = new int[Math.min(size, other.size)];
+        float[] outScores = new float[outIds.length];
+        int i = 0, j = 0, n = 0;
+        while (i < size && j < other.size) {
+            if (ids[i] < other.ids[j]) i++;
+            else if (ids[i] > other.ids[j]) j++;
+            else {
+                outIds[n] = ids[i];
+                outScores[n++] = scores[i++] + other.scores[j++];
+            }
+        }
+        return new ScoredDocs(outIds, outScores, n);
+    }
+
+    private ScoredDocs union(ScoredDocs other, boolean max) {
+        if (size == 0) return other;
+        if (other.size == 0) return this;
+
+        int[] outIds = new int[size + other.size];
+        float[] outScores = new float[outIds.length];
+        int i = 0, j = 0, n = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && ids[i] < other.ids[j])) {
+                outIds[n] = ids[i];
+                outScores[n++] = scores[i++];
+            } else if (i == size || ids[i] > other.ids[j]) {
+                outIds[n] = other.ids[j];
+                outScores[n++] = other.scores[j++];
+            } else {
+                outIds[n] = ids[i];
+                outScores[n++] = max ? Math.max(scores[i++], other.scores[j++]) : scores[i++] + other.scores[j++];
+            }
+        }
+        return new ScoredDocs(outIds, outScores, n);
+    }
+}
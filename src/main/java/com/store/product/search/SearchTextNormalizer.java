@@ -0,0 +1,64 @@
+package com.store.product.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * normaliza texto para los índices de búsqueda en memoria.
+ * <p>Pasos: minúsculas, plegado de acentos ("Orgánica" -> "organica"),
+ * separación por caracteres no alfanuméricos y plural simple
+ * ("yerbas" -> "yerba"), de modo que el texto indexado y la consulta
+ * siempre se comparen en la misma forma.
+ */
+public final class SearchTextNormalizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTextNormalizer() {}
+
+    /**
+     * pliega acentos y pasa a minúsculas, conservando espacios y puntuación.
+     * @param text texto original (puede ser {@code null})
+     * @return texto normalizado, vacío si el original es {@code null}
+     */
+    public static String fold(String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * divide el texto en términos normalizados.
+     * @param text texto original (puede ser {@code null})
+     * @return lista de términos, en el orden en que aparecen
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = words(text);
+        tokens.replaceAll(SearchTextNormalizer::stem);
+        return tokens;
+    }
+
+    /**
+     * igual que {@link #tokenize(String)} pero sin quitar plurales
+     * (para comparar prefijos tal como se tipean).
+     * @param text texto original (puede ser {@code null})
+     * @return palabras normalizadas, en el orden en que aparecen
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String raw : SEPARATORS.split(fold(text))) {
+            if (!raw.isEmpty()) words.add(raw);
+        }
+        return words;
+    }
+
+    private static String stem(String token) {
+        // plural simple: "yerbas" -> "yerba", "mates" -> "mate"; no toca "gas", "plus"
+        if (token.length() > 4 && token.endsWith("s") && !Character.isDigit(token.charAt(token.length() - 2)))
+            return token.substring(0, token.length() - 1);
+        return token;
+    }
+}
@@ -1,11 +1,25 @@
 package com.store.product.service;
 
+import com.store.product.dto.ProductBrowseFilterDTO;
+import com.store.product.dto.ProductBrowseResponseDTO;
+import com.store.product.dto.ProductBulkUpdateReportDTO;
+import com.store.product.dto.ProductBulkUpdateRequestDTO;
+import com.store.product.dto.ProductImportReportDTO;
 import com.store.product.dto.ProductPatchRequestDTO;
 import com.store.product.dto.ProductRequestDTO;
+import com.store.export.ExportFormat;
+import com.store.pagination.CursorPageDTO;
+import com.store.product.importer.ImportFormat;
+import com.store.pagination.SliceDTO;
+import com.store.pagination.TotalMode;
 import com.store.product.dto.ProductResponseDTO;
+import com.store.product.dto.SuggestionDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface ProductService {
     // CREAR PRODUCTO
@@ -17,8 +31,17 @@ public interface ProductService {
     // ELIMINAR PRODUCTO
     void deleteProduct(Long id);
 
+    // IMPORTACION MASIVA (CSV / NDJSON)
+    ProductImportReportDTO importProducts(InputStream body, ImportFormat format);
+
+    // ACTUALIZACION MASIVA DE PRECIO / STOCK
+    ProductBulkUpdateReportDTO bulkUpdate(ProductBulkUpdateRequestDTO request);
+
+    // EXPORTACION COMPLETA DEL CATALOGO (CSV / NDJSON, en streaming)
+    long exportProducts(ExportFormat format, OutputStream out);
+
     //LISTAR PRODCUTO POR PAGINACION
-    Page<ProductResponseDTO> listProducts(Pageable pageable);
+    Page<ProductResponseDTO> listProducts(Pageable pageable, TotalMode total);
 
     // FILTRAR POR CATEGORIA
     Page<ProductResponseDTO> filterBySubcategory(Long subcategoryId, Pageable pageable);
@@ -33,11 +56,35 @@ public interface ProductService {
     Page<ProductResponseDTO> listInStock(Pageable pageable);
 
     // LISTAR CON PRODUCTOS MAYOR QUE CERO
-    Page<ProductResponseDTO> listOutOfStock(Pageable pageable);
+    Page<ProductResponseDTO> listOutOfStock(Pageable pageable, TotalMode total);
+
+    // ----SLICE (sin total) PARA EL STOREFRONT----
+    SliceDTO<ProductResponseDTO> sliceInStock(Pageable pageable);
+
+    SliceDTO<ProductResponseDTO> sliceByCategory(Long categoryId, Pageable pageable);
+
+    SliceDTO<ProductResponseDTO> sliceByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+
+    // ----NAVEGACION CON FILTROS COMBINADOS + FACETAS----
+    ProductBrowseResponseDTO browse(ProductBrowseFilterDTO filter, Pageable pageable);
+
+    // ----AUTOCOMPLETADO----
+    List<SuggestionDTO> suggest(String prefix, int limit);
 
     // ----BUSCARDOR PARA EL ADMIN------
     Page<ProductResponseDTO> searchProducts(String name, Pageable pageable);
 
     // ----BUSCADOR PARA EL USER----
     Page<ProductResponseDTO> searchAvailableProducts(String name, Pageable pageable);
+
+    // ----SCROLL POR CURSOR (KEYSET)----
+    CursorPageDTO<ProductResponseDTO> scrollProducts(String cursor, int size);
+
+    CursorPageDTO<ProductResponseDTO> scrollInStock(String cursor, int size);
+
+    CursorPageDTO<ProductResponseDTO> scrollBySubcategory(Long subcategoryId, String cursor, int size);
+
+    CursorPageDTO<ProductResponseDTO> scrollByCategory(Long categoryId, String cursor, int size);
+
+    CursorPageDTO<ProductResponseDTO> scrollByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String cursor, int size);
 }
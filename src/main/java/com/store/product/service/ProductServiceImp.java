@@ -4,28 +4,83 @@ import com.store.category.entity.SubcategoryEntity;
 import com.store.category.repository.SubcategoryRepository;
 import com.store.exception.BusinessException;
 import com.store.exception.ResourceNotFoundException;
+import com.store.export.ExportFormat;
+import com.store.export.ExportWriter;
+import com.store.pagination.CursorCodec;
+import com.store.pagination.CursorPageDTO;
+import com.store.pagination.PageTotals;
+import com.store.pagination.RowCountEstimator;
+import com.store.pagination.SliceDTO;
+import com.store.pagination.TotalMode;
+import com.store.product.dto.ProductBrowseFilterDTO;
+import com.store.product.dto.ProductBulkUpdateErrorDTO;
+import com.store.product.dto.ProductBulkUpdateItemDTO;
+import com.store.product.dto.ProductBulkUpdateReportDTO;
+import com.store.product.dto.ProductBulkUpdateRequestDTO;
+import com.store.product.dto.ProductBrowseResponseDTO;
+import com.store.product.dto.ProductFacetsDTO;
+import com.store.product.dto.ProductImportReportDTO;
 import com.store.product.dto.ProductPatchRequestDTO;
 import com.store.product.dto.ProductRequestDTO;
 import com.store.product.dto.ProductResponseDTO;
+import com.store.product.dto.SuggestionDTO;
+import com.store.product.cache.ProductCatalogCache;
 import com.store.product.entity.ProductEntity;
+import com.store.product.event.ProductChangeType;
+import com.store.product.event.ProductChangedEvent;
+import com.store.product.importer.ImportFormat;
+import com.store.product.importer.ProductImporter;
 import com.store.product.mapper.ProductMapper;
+import com.store.product.repository.ProductBrowseRepository;
+import com.store.product.repository.ProductBulkRepository;
 import com.store.product.repository.ProductRepository;
+import com.store.product.search.ProductSearchEngine;
+import com.store.product.suggest.ProductSuggestionIndex;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 @Transactional(readOnly = true)
 public class ProductServiceImp implements ProductService {
+    // ordenes del scroll por cursor: siempre terminan en id para ser determinísticos
+    private static final Sort SCROLL_BY_ID = Sort.by("id");
+    private static final Sort SCROLL_BY_NAME = Sort.by("name", "id");
+    private static final Sort SCROLL_BY_PRICE = Sort.by("price", "id");
+
     private final SubcategoryRepository subcategoryRepository;
     private final ProductRepository productRepository;
+    private final ProductBrowseRepository browseRepository;
+    private final ProductBulkRepository bulkRepository;
     private final ProductMapper productMapper;
+    private final ProductCatalogCache catalogCache;
+    private final ProductSearchEngine searchEngine;
+    private final ProductSuggestionIndex suggestionIndex;
+    private final ProductImporter productImporter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageTotals pageTotals;
+    private final RowCountEstimator rowCountEstimator;
+    private final ObjectMapper objectMapper;
 
 
     /**
@@ -55,7 +110,9 @@ public class ProductServiceImp implements ProductService {
         ProductEntity product = productMapper.dtoToEntity(productRequest,subcategory);
         productRepository.save(product);
 
-        return  productMapper.entityToDto(product);
+        ProductResponseDTO created = productMapper.entityToDto(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangeType.CREATED, created));
+        return created;
     }
 
     /**
@@ -110,7 +167,9 @@ public class ProductServiceImp implements ProductService {
 
         productMapper.updateEntity(product, request, subcategory);
 
-        return productMapper.entityToDto(product);
+        ProductResponseDTO updated = productMapper.entityToDto(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangeType.UPDATED, updated));
+        return updated;
     }
 
     /**
@@ -118,91 +177,249 @@ public class ProductServiceImp implements ProductService {
      * @param id identificador del producto a eliminar
      * @throws ResourceNotFoundException si el producto no existe
      */
+    @Transactional
     @Override
     public void deleteProduct(Long id) {
         ProductEntity product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("el producto con ID: "+id+" no existe"));
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(
+                ProductChangedEvent.of(ProductChangeType.DELETED, productMapper.entityToDto(product)));
+    }
+
+    /**
+     * importa productos en lotes desde un archivo CSV o NDJSON.
+     * <p>Corre fuera de transacción: cada lote confirma por su cuenta para no
+     * mantener abierta una transacción durante toda la lectura del archivo.
+     * @param body contenido del archivo
+     * @param format formato según el {@code Content-Type}
+     * @return resumen con importados, rechazados y errores por línea
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductImportReportDTO importProducts(InputStream body, ImportFormat format) {
+        return productImporter.importProducts(body, format);
     }
 
+    /**
+     * actualiza precio y/o stock de varios productos en una sola sentencia.
+     * <p>Cada ítem se valida por separado: los que fallan (ID repetido, sin cambios,
+     * {@code stock} y {@code stockDelta} juntos, producto inexistente o stock que
+     * quedaría negativo) se informan en el resumen y no frenan al resto.
+     * La sentencia bloquea las filas en orden de ID antes de actualizarlas, igual que
+     * el checkout: dos lotes, o un lote y un checkout, nunca se esperan en orden cruzado.
+     * <p>Se publica un único evento con todos los productos actualizados, así las
+     * cachés se invalidan una vez por lote y no una por fila.
+     * @param request ítems a actualizar
+     * @return resumen con actualizados y errores por ID
+     */
+    @Transactional
+    @Override
+    public ProductBulkUpdateReportDTO bulkUpdate(ProductBulkUpdateRequestDTO request) {
+        List<ProductBulkUpdateErrorDTO> errors = new ArrayList<>();
+        Map<Long, ProductBulkUpdateItemDTO> byId = new TreeMap<>();
+        for (ProductBulkUpdateItemDTO item : request.getItems()) {
+            String error = item.getStock() != null && item.getStockDelta() != null
+                    ? "stock y stockDelta son excluyentes"
+                    : item.getPrice() == null && item.getStock() == null && item.getStockDelta() == null
+                    ? "no hay cambios para aplicar"
+                    : byId.putIfAbsent(item.getId(), item) != null ? "ID repetido en el pedido" : null;
+            if (error != null) errors.add(new ProductBulkUpdateErrorDTO(item.getId(), error));
+        }
+
+        Set<Long> updated = byId.isEmpty() ? Set.of() : bulkRepository.updateBatch(List.copyOf(byId.values()));
+
+        if (updated.size() < byId.size()) {
+            Set<Long> existing = bulkRepository.findExistingIds(byId.keySet());
+            for (Long id : byId.keySet()) {
+                if (updated.contains(id)) continue;
+                errors.add(new ProductBulkUpdateErrorDTO(id, existing.contains(id)
+                        ? "stock insuficiente para aplicar stockDelta " + byId.get(id).getStockDelta()
+                        : "el producto con ID: " + id + " no existe"));
+            }
+        }
+
+        if (!updated.isEmpty())
+            eventPublisher.publishEvent(new ProductChangedEvent(ProductChangeType.UPDATED,
+                    productRepository.findViewsByIdIn(updated)));
+
+        return ProductBulkUpdateReportDTO.builder()
+                .requested(request.getItems().size())
+                .updated(updated.size())
+                .errors(errors)
+                .build();
+    }
 
+    /**
+     * exporta todo el catálogo ordenado por ID.
+     * <p>Recorre un cursor de la base (fetch size acotado, proyección a DTO) y
+     * escribe cada fila apenas llega: la memoria no crece con el catálogo.
+     * El CSV usa el mismo encabezado que la importación, así que se puede reimportar.
+     * @param format CSV o NDJSON
+     * @param out cuerpo de la respuesta
+     * @return cantidad de productos exportados
+     */
+    @Override
+    public long exportProducts(ExportFormat format, OutputStream out) {
+        try (ExportWriter writer = new ExportWriter(out, format, objectMapper);
+             Stream<ProductResponseDTO> products = productRepository.streamViews()) {
+            if (format == ExportFormat.CSV)
+                writer.header("id", "name", "price", "description", "url", "stock",
+                        "subcategoryId", "subcategoryName", "categoryName");
+
+            products.forEach(p -> {
+                if (format == ExportFormat.NDJSON) writer.json(p);
+                else writer.csv(p.getId(), p.getName(), p.getPrice(), p.getDescription(), p.getUrl(), p.getStock(),
+                        p.getSubcategoryId(), p.getSubcategoryName(), p.getCategoryName());
+            });
+            return writer.records();
+        }
+    }
+
+    /**
+     * obtiene el detalle de un producto, sirviéndolo desde la caché del catálogo
+     * cuando está disponible.
+     * @param id identificador del producto
+     * @return DTO del producto
+     * @throws ResourceNotFoundException si el producto no existe
+     */
     public ProductResponseDTO findById(Long id){
-        return productRepository.findById(id)
-                .map(productMapper::entityToDto)
-                .orElseThrow(() -> new ResourceNotFoundException("el producto con ID: "+id+" no existe"));
+        return catalogCache.getProduct(id, key -> productRepository.findViewById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("el producto con ID: "+id+" no existe")));
     }
 
                 /**----------------------FILTROS DE BUSCQUEDA----------------**/
 
 
+    /**
+     * listado del dashboard.
+     * <p>Con {@code total} distinto de {@code EXACT} la página se consulta sin
+     * {@code COUNT(*)} y el total sale de la caché de conteos o de {@code pg_class}.
+     */
     @Override
-    public Page<ProductResponseDTO> listProducts(Pageable pageable) {
-        return productRepository
-                .findAll(pageable)
-                .map(productMapper::entityToDto);
+    public Page<ProductResponseDTO> listProducts(Pageable pageable, TotalMode total) {
+        if (total == TotalMode.EXACT)
+            return productRepository.findViews(pageable);
 
+        return pageTotals.withTotal(productRepository.sliceViews(pageable),
+                total, "products", productRepository::count, () -> rowCountEstimator.tableRows("products"));
     }
 
     @Override
     public Page<ProductResponseDTO> filterBySubcategory(Long subcategoryId, Pageable pageable) {
-        return productRepository
-                .findBySubcategoryId(subcategoryId, pageable)
-                .map(productMapper::entityToDto);
+        return productRepository.findViewsBySubcategory(subcategoryId, pageable);
     }
 
     @Override
     public Page<ProductResponseDTO> filterProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository
-                .findBySubcategoryCategoryId(categoryId, pageable)
-                .map(productMapper::entityToDto);
+        return productRepository.findViewsByCategory(categoryId, pageable);
     }
 
 
     @Override
     public Page<ProductResponseDTO> filterByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository
-                .findByPriceBetween(minPrice, maxPrice, pageable)
-                .map(productMapper::entityToDto);
+        return productRepository.findViewsByPriceBetween(minPrice, maxPrice, pageable);
     }
 
 
+    /**
+     * catálogo público (productos con stock), cacheado por página y orden.
+     */
     @Override
     public Page<ProductResponseDTO> listInStock(Pageable pageable) {
-        return productRepository
-                .findByStockGreaterThan(0, pageable)
-                .map(productMapper::entityToDto);
+        return catalogCache.getCatalogPage(pageable, () -> productRepository.findViewsByStockGreaterThan(0, pageable));
+    }
+
+
+    @Override
+    public Page<ProductResponseDTO> listOutOfStock(Pageable pageable, TotalMode total) {
+        if (total == TotalMode.EXACT)
+            return productRepository.findViewsByStockEquals(0, pageable);
+
+        return pageTotals.withTotal(productRepository.sliceViewsByStockEquals(0, pageable),
+                total, "products:out-of-stock", () -> productRepository.countByStockEquals(0),
+                () -> rowCountEstimator.queryRows("SELECT 1 FROM products WHERE stock = 0"));
+    }
+
+    /**
+     * variante de {@link #listInStock(Pageable)} sin total (no ejecuta COUNT),
+     * pensada para scroll infinito con "ver más". También se cachea.
+     */
+    @Override
+    public SliceDTO<ProductResponseDTO> sliceInStock(Pageable pageable) {
+        return SliceDTO.of(catalogCache.getCatalogSlice(pageable,
+                () -> productRepository.sliceViewsByStockGreaterThan(0, pageable)));
     }
 
+    @Override
+    public SliceDTO<ProductResponseDTO> sliceByCategory(Long categoryId, Pageable pageable) {
+        return SliceDTO.of(productRepository.sliceViewsByCategory(categoryId, pageable));
+    }
 
     @Override
-    public Page<ProductResponseDTO> listOutOfStock(Pageable pageable) {
-        return productRepository
-                .findByStockEquals(0, pageable)
-                .map(productMapper::entityToDto);
+    public SliceDTO<ProductResponseDTO> sliceByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        return SliceDTO.of(productRepository.sliceViewsByPriceBetween(minPrice, maxPrice, pageable));
+    }
+    /**
+     * navegación del storefront: categoría, subcategoría, precio, stock y texto
+     * combinados, con las facetas para la barra de filtros.
+     * <p>Cuesta dos consultas: las facetas (una pasada agregada que también da el
+     * total) y la página; la segunda se omite si el offset supera el total.
+     * @param filter filtros; los {@code null} no se aplican
+     * @param pageable página; sin orden y con texto, ordena por relevancia
+     * @return página de productos con facetas
+     * @throws BusinessException si el rango de precios es inválido o el orden no está soportado
+     */
+    @Override
+    public ProductBrowseResponseDTO browse(ProductBrowseFilterDTO filter, Pageable pageable) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null &&
+                filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0)
+            throw new BusinessException("el precio mínimo no puede ser mayor al máximo");
+
+        ProductFacetsDTO facets = browseRepository.facets(filter);
+        List<ProductResponseDTO> content = facets.getTotal() > pageable.getOffset()
+                ? browseRepository.page(filter, pageable)
+                : List.of();
+
+        return ProductBrowseResponseDTO.builder()
+                .content(content)
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .totalElements(facets.getTotal())
+                .totalPages((int) Math.ceil((double) facets.getTotal() / pageable.getPageSize()))
+                .facets(facets)
+                .build();
     }
     /*-----------------------------------------------------------**/
 
+    /**
+     * autocompletado por prefijo, resuelto en memoria (no consulta la base).
+     * @param prefix texto tipeado hasta el momento
+     * @param limit cantidad de sugerencias (máximo {@value ProductSuggestionIndex#MAX_SUGGESTIONS})
+     * @return categorías, subcategorías y productos que empiezan con el prefijo, por relevancia
+     */
+    @Override
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
     /**                     -ADMIN SEARCH-
-     * busca productos por nombre utilizando coincidencia parcial
-     * basada en expresiones regulares (entre palabras).
+     * busca productos por nombre y descripción, con o sin stock,
+     * usando el motor configurado en {@code store.search.engine}.
      */
     @Override
     public Page<ProductResponseDTO> searchProducts(String name, Pageable pageable) {
         if (name == null || name.isBlank()) return Page.empty();
 
-        String regex = name.trim().replaceAll("\\s+", "|");
-
-        return productRepository
-                .searchByNameRegexAny(regex, pageable)
-                .map(productMapper::entityToDto);
+        return searchEngine.search(name, false, pageable);
     }
 
     /**                     -USER SEARCH-
-     * busca productos disponibles en stock cuyo nombre contenga
+     * busca productos disponibles en stock que contengan
      * cualquiera de las palabras indicadas.
-     * <p>La entrada se normaliza reemplazando espacios múltiples
-     * por el operador regex {@code |}.
+     * <p>Con el motor por defecto ({@code fulltext}) la búsqueda usa los
+     * índices GIN de {@code db/sql/04_product_search.sql} y ordena por relevancia.
      * @param name texto de búsqueda ingresado por el usuario
      * @param pageable información de paginación
      * @return página de productos disponibles que coinciden con la búsqueda
@@ -211,10 +428,62 @@ public class ProductServiceImp implements ProductService {
     public Page<ProductResponseDTO> searchAvailableProducts(String name, Pageable pageable) {
         if (name == null || name.isBlank()) return Page.empty();
 
-        String regex = name.trim().replaceAll("\\s+", "|");
+        return searchEngine.search(name, true, pageable);
+    }
+
+                /**----------------------SCROLL POR CURSOR (KEYSET)----------------**/
+
+    /**
+     * listado administrativo por cursor, ordenado por {@code id}.
+     * <p>A diferencia de {@link #listProducts(Pageable)} no usa OFFSET ni COUNT:
+     * cada página cuesta lo mismo sin importar qué tan profundo se navegue.
+     * @param cursor cursor devuelto por la página anterior, o {@code null} para la primera
+     * @param size cantidad de elementos (máximo {@value CursorCodec#MAX_PAGE_SIZE})
+     * @return página con el cursor de la siguiente
+     */
+    @Override
+    public CursorPageDTO<ProductResponseDTO> scrollProducts(String cursor, int size) {
+        Window<ProductEntity> window = productRepository.findAllBy(
+                CursorCodec.decode(cursor, SCROLL_BY_ID), SCROLL_BY_ID, Limit.of(CursorCodec.clampSize(size)));
+
+        return CursorCodec.toPage(window, SCROLL_BY_ID, productMapper::entityToDto);
+    }
+
+    /**
+     * catálogo público (productos con stock) por cursor, ordenado por nombre; la
+     * variante de {@link #listInStock(Pageable)} para scroll infinito sin OFFSET.
+     * No se cachea: cada página se pide una sola vez por cliente.
+     */
+    @Override
+    public CursorPageDTO<ProductResponseDTO> scrollInStock(String cursor, int size) {
+        Window<ProductEntity> window = productRepository.findByStockGreaterThan(0,
+                CursorCodec.decode(cursor, SCROLL_BY_NAME), SCROLL_BY_NAME, Limit.of(CursorCodec.clampSize(size)));
+
+        return CursorCodec.toPage(window, SCROLL_BY_NAME, productMapper::entityToDto);
+    }
+
+    @Override
+    public CursorPageDTO<ProductResponseDTO> scrollBySubcategory(Long subcategoryId, String cursor, int size) {
+        Window<ProductEntity> window = productRepository.findBySubcategoryId(subcategoryId,
+                CursorCodec.decode(cursor, SCROLL_BY_NAME), SCROLL_BY_NAME, Limit.of(CursorCodec.clampSize(size)));
+
+        return CursorCodec.toPage(window, SCROLL_BY_NAME, productMapper::entityToDto);
+    }
+
+    @Override
+    public CursorPageDTO<ProductResponseDTO> scrollByCategory(Long categoryId, String cursor, int size) {
+        Window<ProductEntity> window = productRepository.findBySubcategoryCategoryId(categoryId,
+                CursorCodec.decode(cursor, SCROLL_BY_NAME), SCROLL_BY_NAME, Limit.of(CursorCodec.clampSize(size)));
+
+        return CursorCodec.toPage(window, SCROLL_BY_NAME, productMapper::entityToDto);
+    }
+
+    @Override
+    public CursorPageDTO<ProductResponseDTO> scrollByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                                               String cursor, int size) {
+        Window<ProductEntity> window = productRepository.findByPriceBetween(minPrice, maxPrice,
+                CursorCodec.decode(cursor, SCROLL_BY_PRICE), SCROLL_BY_PRICE, Limit.of(CursorCodec.clampSize(size)));
 
-        return productRepository
-                .searchByNameRegexAvailable(regex, pageable)
-                .map(productMapper::entityToDto);
+        return CursorCodec.toPage(window, SCROLL_BY_PRICE, productMapper::entityToDto);
     }
-}
\ No newline at end of file
+}
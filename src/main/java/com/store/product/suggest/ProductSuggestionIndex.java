@@ -0,0 +1,208 @@
+package com.store.product.suggest;
+
+import com.store.category.entity.CategoryEntity;
+import com.store.category.entity.SubcategoryEntity;
+import com.store.category.event.CategoryChangedEvent;
+import com.store.category.repository.CategoryRepository;
+import com.store.product.dto.ProductResponseDTO;
+import com.store.product.dto.SuggestionDTO;
+import com.store.product.event.ProductChangeType;
+import com.store.product.event.ProductChangedEvent;
+import com.store.product.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * autocompletado de {@code /products/suggest} sobre nombres de productos,
+ * subcategorías y categorías.
+ * <p>Ranking: primero categorías y subcategorías con productos en stock
+ * (las que más tienen, antes), luego productos con stock, luego productos
+ * agotados y al final categorías vacías; a igualdad, el nombre más corto.
+ * <p>Se construye al iniciar y se reconstruye en memoria (sin ir a la base)
+ * cuando un cambio altera los textos o el ranking: alta/baja/edición de
+ * productos, un producto que se agota, o cambios de categorías. Tras una
+ * importación masiva recarga los productos desde la base.
+ * <p>La reconstrucción corre en un hilo de fondo, {@code store.suggest.rebuild-delay}
+ * después del primer cambio: los que llegan en ese intervalo se juntan en una sola,
+ * y el commit que los produjo no la espera. Hasta entonces se sugiere con el índice
+ * anterior.
+ */
+@Slf4j
+@Component
+public class ProductSuggestionIndex implements SmartInitializingSingleton {
+    /** sugerencias guardadas por nodo: tope del {@code limit} de la consulta. */
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final long rebuildDelayMillis;
+    private final ScheduledExecutorService rebuilder;
+
+    private final Map<Long, ProductEntry> products = new ConcurrentHashMap<>();
+    private volatile List<CategoryEntry> categories = List.of();
+    private volatile SuggestionTrie trie = SuggestionTrie.EMPTY;
+
+    // hay una reconstrucción programada que todavía no empezó: los cambios nuevos la esperan
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicBoolean reloadProducts = new AtomicBoolean();
+    private final AtomicBoolean reloadCategories = new AtomicBoolean();
+
+    public ProductSuggestionIndex(ProductRepository productRepository, CategoryRepository categoryRepository,
+                                  @Value("${store.suggest.rebuild-delay}") Duration rebuildDelay) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.rebuildDelayMillis = rebuildDelay.toMillis();
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.currentTimeMillis();
+        loadProducts();
+        categories = loadCategories();
+        rebuild();
+        log.info("Índice de sugerencias construido: {} entradas en {} ms", trie.size(), System.currentTimeMillis() - start);
+    }
+
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        if (prefix == null || limit <= 0) return List.of();
+        return trie.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangeType.BULK_IMPORTED) {
+            reloadProducts.set(true);
+            scheduleRebuild();
+            return;
+        }
+
+        boolean changed = false;
+        for (ProductResponseDTO product : event.products()) {
+            ProductEntry entry = ProductEntry.of(product);
+            ProductEntry previous = event.type() == ProductChangeType.DELETED
+                    ? products.remove(product.getId())
+                    : products.put(product.getId(), entry);
+            // un descuento de stock solo importa si el producto se agotó
+            changed |= event.type() == ProductChangeType.DELETED || !entry.equals(previous);
+        }
+        if (changed) scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reloadCategories.set(true);
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+            /*-------------METODOS PRIVADOS AUXILIARES ------------*/
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true))
+            rebuilder.schedule(this::rebuildPending, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** corre en el hilo de fondo: recarga lo pedido desde la base y reconstruye una sola vez. */
+    private void rebuildPending() {
+        // antes de leer: un cambio que llegue durante la reconstrucción programa otra
+        rebuildScheduled.set(false);
+        try {
+            if (reloadCategories.getAndSet(false)) categories = loadCategories();
+            if (reloadProducts.getAndSet(false)) loadProducts();
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("No se pudo reconstruir el índice de sugerencias", e);
+        }
+    }
+
+    private void loadProducts() {
+        List<ProductResponseDTO> batch;
+        long lastId = 0;
+        do {
+            batch = productRepository.findViewsAfterId(lastId, Limit.of(LOAD_BATCH_SIZE));
+            for (ProductResponseDTO product : batch) {
+                products.put(product.getId(), ProductEntry.of(product));
+                lastId = product.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+    }
+
+    private List<CategoryEntry> loadCategories() {
+        List<CategoryEntry> entries = new ArrayList<>();
+        for (CategoryEntity category : categoryRepository.findAllWithSubcategories()) {
+            entries.add(new CategoryEntry(SuggestionType.CATEGORY, category.getId(), category.getName(), null));
+            for (SubcategoryEntity sub : category.getSubcategories())
+                entries.add(new CategoryEntry(SuggestionType.SUBCATEGORY, sub.getId(), sub.getName(), category.getId()));
+        }
+        return entries;
+    }
+
+    private synchronized void rebuild() {
+        Map<Long, Integer> inStockBySubcategory = new HashMap<>();
+        Map<Long, Integer> inStockByCategory = new HashMap<>();
+        Map<Long, Long> categoryOfSubcategory = new HashMap<>();
+        for (CategoryEntry entry : categories)
+            if (entry.type() == SuggestionType.SUBCATEGORY) categoryOfSubcategory.put(entry.id(), entry.categoryId());
+
+        for (ProductEntry product : products.values()) {
+            if (!product.inStock() || product.subcategoryId() == null) continue;
+            inStockBySubcategory.merge(product.subcategoryId(), 1, Integer::sum);
+            Long categoryId = categoryOfSubcategory.get(product.subcategoryId());
+            if (categoryId != null) inStockByCategory.merge(categoryId, 1, Integer::sum);
+        }
+
+        List<Ranked> ranked = new ArrayList<>(products.size() + categories.size());
+        for (CategoryEntry entry : categories) {
+            int inStock = (entry.type() == SuggestionType.CATEGORY ? inStockByCategory : inStockBySubcategory)
+                    .getOrDefault(entry.id(), 0);
+            ranked.add(new Ranked(new SuggestionDTO(entry.name(), entry.type(), entry.id()), inStock > 0 ? 3 : 0, inStock));
+        }
+        products.forEach((id, product) -> ranked.add(new Ranked(
+                new SuggestionDTO(product.name(), SuggestionType.PRODUCT, id), product.inStock() ? 2 : 1, 0)));
+
+        ranked.sort(Comparator.comparingInt(Ranked::tier).reversed()
+                .thenComparing(Comparator.comparingInt(Ranked::inStock).reversed())
+                .thenComparingInt(r -> r.suggestion().getText().length())
+                .thenComparing(r -> r.suggestion().getText()));
+
+        trie = SuggestionTrie.build(ranked.stream().map(Ranked::suggestion).toList(), MAX_SUGGESTIONS);
+    }
+
+    private record ProductEntry(String name, Long subcategoryId, boolean inStock) {
+        static ProductEntry of(ProductResponseDTO product) {
+            return new ProductEntry(product.getName(), product.getSubcategoryId(),
+                    product.getStock() != null && product.getStock() > 0);
+        }
+    }
+
+    private record CategoryEntry(SuggestionType type, Long id, String name, Long categoryId) {}
+
+    private record Ranked(SuggestionDTO suggestion, int tier, int inStock) {}
+}
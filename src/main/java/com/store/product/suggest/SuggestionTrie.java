@@ -0,0 +1,130 @@
+package com.store.product.suggest;
+
+import com.store.product.dto.SuggestionDTO;
+import com.store.product.search.SearchTextNormalizer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * trie inmutable de prefijos con el top-k precalculado en cada nodo.
+ * <p>Cada texto se indexa desde el inicio de cada una de sus palabras
+ * ("Yerba Mate Canarias" responde a "yer", "mat" y "can"), normalizado sin acentos.
+ * Las sugerencias llegan ordenadas por ranking, por lo que su posición es su
+ * puntaje: cada nodo guarda los {@code k} índices más chicos que pasan por él
+ * y una consulta solo recorre el prefijo, sin mirar el resto del árbol.
+ * <p>Tras construirse se compacta en arreglos paralelos (hijos ordenados con
+ * búsqueda binaria) y se reemplaza entero ante cambios: lecturas sin locks.
+ */
+final class SuggestionTrie {
+    /** los prefijos más largos se recortan: a esa altura el top-k ya es muy específico. */
+    static final int MAX_DEPTH = 24;
+
+    static final SuggestionTrie EMPTY = build(List.of(), 1);
+
+    private final SuggestionDTO[] suggestions;
+    private final char[][] labels;
+    private final int[][] children;
+    private final int[][] top;
+
+    private SuggestionTrie(SuggestionDTO[] suggestions, char[][] labels, int[][] children, int[][] top) {
+        this.suggestions = suggestions;
+        this.labels = labels;
+        this.children = children;
+        this.top = top;
+    }
+
+    /**
+     * @param ranked sugerencias de la mejor a la peor
+     * @param k cantidad máxima de sugerencias que se guardan por nodo
+     */
+    static SuggestionTrie build(List<SuggestionDTO> ranked, int k) {
+        Node root = new Node();
+        int nodes = 1;
+        for (int i = 0; i < ranked.size(); i++) {
+            List<String> words = SearchTextNormalizer.words(ranked.get(i).getText());
+            for (int w = 0; w < words.size(); w++) {
+                String key = String.join(" ", words.subList(w, words.size()));
+                Node node = root;
+                for (int c = 0; c < Math.min(key.length(), MAX_DEPTH); c++) {
+                    Node child = node.children.get(key.charAt(c));
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(key.charAt(c), child);
+                        nodes++;
+                    }
+                    child.offer(i, k);
+                    node = child;
+                }
+            }
+        }
+
+        // compacta en arreglos por recorrido BFS
+        char[][] labels = new char[nodes][];
+        int[][] children = new int[nodes][];
+        int[][] top = new int[nodes][];
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        int next = 1;
+        for (int id = 0; !queue.isEmpty(); id++) {
+            Node node = queue.poll();
+            labels[id] = new char[node.children.size()];
+            children[id] = new int[node.children.size()];
+            int c = 0;
+            for (var entry : node.children.entrySet()) {
+                labels[id][c] = entry.getKey();
+                children[id][c++] = next++;
+                queue.add(entry.getValue());
+            }
+            top[id] = Arrays.copyOf(node.top, node.size);
+        }
+
+        return new SuggestionTrie(ranked.toArray(SuggestionDTO[]::new), labels, children, top);
+    }
+
+    /**
+     * @param prefix texto tipeado por el usuario
+     * @param limit cantidad máxima de resultados
+     * @return sugerencias cuyo texto tiene una palabra que empieza con el prefijo
+     */
+    List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = String.join(" ", SearchTextNormalizer.words(prefix));
+        if (key.isEmpty()) return List.of();
+
+        int node = 0;
+        for (int c = 0; c < Math.min(key.length(), MAX_DEPTH); c++) {
+            int pos = Arrays.binarySearch(labels[node], key.charAt(c));
+            if (pos < 0) return List.of();
+            node = children[node][pos];
+        }
+
+        int[] best = top[node];
+        List<SuggestionDTO> result = new ArrayList<>(Math.min(limit, best.length));
+        for (int i = 0; i < best.length && result.size() < limit; i++) result.add(suggestions[best[i]]);
+        return result;
+    }
+
+    int size() {
+        return suggestions.length;
+    }
+
+    private static final class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        int[] top = new int[2];
+        int size;
+
+        /**
+         * los índices llegan en orden creciente por sugerencia, pero una misma
+         * sugerencia puede pasar dos veces por el nodo (palabras repetidas).
+         */
+        void offer(int index, int k) {
+            if (size > 0 && top[size - 1] == index) return;
+            if (size == k) return;
+            if (size == top.length) top = Arrays.copyOf(top, Math.min(k, size * 2));
+            top[size++] = index;
+        }
+    }
+}
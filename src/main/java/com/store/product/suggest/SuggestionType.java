@@ -0,0 +1,7 @@
+package com.store.product.suggest;
+
+public enum SuggestionType {
+    CATEGORY,
+    SUBCATEGORY,
+    PRODUCT
+}
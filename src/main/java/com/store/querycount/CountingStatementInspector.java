@@ -0,0 +1,18 @@
+package com.store.querycount;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * cuenta cada sentencia que prepara Hibernate en el conteo abierto del hilo.
+ * <p>Registrado en {@code spring.jpa.properties.hibernate.session_factory.statement_inspector};
+ * Hibernate lo instancia por nombre de clase, por eso el estado vive en {@link QueryCounter}.
+ * Las consultas con {@code JdbcTemplate} no pasan por acá.
+ */
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.record(sql);
+        return sql;
+    }
+}
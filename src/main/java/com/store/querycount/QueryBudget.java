@@ -0,0 +1,17 @@
+package com.store.querycount;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * máximo de sentencias SQL esperado para un endpoint; sin la anotación rige
+ * {@code store.query-budget.default}. Excederlo no falla el request: se loguea.
+ * <p>En los endpoints autenticados incluye la carga del usuario del token.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,82 @@
+package com.store.querycount;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * cuenta las sentencias SQL de cada request y las compara con el presupuesto del endpoint.
+ * <p>El presupuesto es el de {@link QueryBudget} en el método del controller, o
+ * {@code store.query-budget.default}. Pasarse se loguea como WARN, igual que una
+ * misma sentencia repetida {@code store.query-budget.repeat-threshold} veces o más
+ * (típico N+1 de relaciones lazy). Cada conteo queda además en la métrica
+ * {@code store.db.statements} por endpoint.
+ */
+@Slf4j
+@Component
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+    private static final String STATS_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".stats";
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final int repeatThreshold;
+
+    public QueryBudgetInterceptor(MeterRegistry meterRegistry,
+                                  @Value("${store.query-budget.default}") int defaultBudget,
+                                  @Value("${store.query-budget.repeat-threshold}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        QueryCounter.Stats stats = QueryCounter.begin();
+        if (stats != null) request.setAttribute(STATS_ATTRIBUTE, stats);
+        return true;
+    }
+
+    /** el hilo del contenedor se libera: el cuerpo en streaming corre en otro hilo y no se cuenta. */
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request,
+                                               @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (request.getAttribute(STATS_ATTRIBUTE) == null) return;
+        request.removeAttribute(STATS_ATTRIBUTE);
+        QueryCounter.end();
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        if (!(request.getAttribute(STATS_ATTRIBUTE) instanceof QueryCounter.Stats stats)) return;
+        request.removeAttribute(STATS_ATTRIBUTE);
+        QueryCounter.end();
+
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("store.db.statements")
+                .description("sentencias SQL por request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.count());
+
+        int budget = handler instanceof HandlerMethod method && method.hasMethodAnnotation(QueryBudget.class)
+                ? method.getMethodAnnotation(QueryBudget.class).value()
+                : defaultBudget;
+        if (stats.count() > budget)
+            log.warn("{} ejecutó {} sentencias SQL (presupuesto: {})", endpoint, stats.count(), budget);
+
+        for (Map.Entry<String, Integer> repeated : stats.repeated(repeatThreshold))
+            log.warn("posible N+1 en {}: {} ejecuciones de [{}]", endpoint, repeated.getValue(), repeated.getKey());
+    }
+}
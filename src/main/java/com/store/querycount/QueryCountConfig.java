@@ -0,0 +1,41 @@
+package com.store.querycount;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * engancha el conteo de sentencias SQL a los requests (interceptor MVC) y a
+ * las llamadas a servicios (advisor sobre las clases {@code @Service}).
+ */
+@Configuration
+@RequiredArgsConstructor
+public class QueryCountConfig implements WebMvcConfigurer {
+    private final QueryBudgetInterceptor queryBudgetInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryBudgetInterceptor);
+    }
+
+    /** de infraestructura para que lo aplique el mismo auto-proxy que {@code @Transactional}. */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor serviceQueryCountAdvisor(ObjectProvider<MeterRegistry> meterRegistry,
+                                            @Value("${store.query-budget.repeat-threshold}") int repeatThreshold) {
+        return new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forClassAnnotation(Service.class),
+                new ServiceQueryCountInterceptor(meterRegistry, repeatThreshold));
+    }
+}
@@ -0,0 +1,70 @@
+package com.store.querycount;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * conteo de sentencias SQL por hilo.
+ * <p>Lo alimenta {@link CountingStatementInspector} con cada sentencia que prepara
+ * Hibernate; quien abre el conteo (un request HTTP o una llamada a un servicio
+ * fuera de un request) lo cierra y decide qué hacer con el resultado.
+ * Sin conteo abierto, registrar una sentencia no hace nada.
+ */
+public final class QueryCounter {
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {}
+
+    static void record(String sql) {
+        Stats stats = CURRENT.get();
+        if (stats != null) stats.record(sql);
+    }
+
+    /**
+     * @return el conteo abierto en el hilo, o {@code null} si no hay ninguno
+     */
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * abre un conteo en el hilo.
+     * @return el conteo nuevo, o {@code null} si ya había uno abierto (lo sigue siendo el anterior)
+     */
+    public static Stats begin() {
+        if (CURRENT.get() != null) return null;
+        Stats stats = new Stats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static final class Stats {
+        private final Map<String, Integer> executions = new HashMap<>();
+        private int count;
+
+        private void record(String sql) {
+            count++;
+            executions.merge(sql, 1, Integer::sum);
+        }
+
+        public int count() {
+            return count;
+        }
+
+        /**
+         * @param threshold ejecuciones a partir de las cuales una sentencia se considera repetida
+         * @return sentencias idénticas ejecutadas al menos {@code threshold} veces (síntoma de N+1)
+         */
+        public List<Map.Entry<String, Integer>> repeated(int threshold) {
+            return executions.entrySet().stream()
+                    .filter(e -> e.getValue() >= threshold)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .toList();
+        }
+    }
+}
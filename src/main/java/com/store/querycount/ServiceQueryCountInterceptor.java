@@ -0,0 +1,53 @@
+package com.store.querycount;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Map;
+
+/**
+ * cuenta las sentencias SQL de cada llamada a un {@code @Service} (incluye las de
+ * servicios anidados) en la métrica {@code store.db.statements.service} por método.
+ * <p>Dentro de un request suma sobre el conteo del request; fuera de uno (tareas
+ * en segundo plano, arranque) abre el suyo y avisa de sentencias repetidas.
+ */
+@Slf4j
+class ServiceQueryCountInterceptor implements MethodInterceptor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int repeatThreshold;
+
+    ServiceQueryCountInterceptor(ObjectProvider<MeterRegistry> meterRegistry, int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        QueryCounter.Stats owned = QueryCounter.begin();
+        QueryCounter.Stats stats = owned != null ? owned : QueryCounter.current();
+        int before = stats.count();
+        try {
+            return invocation.proceed();
+        } finally {
+            String service = invocation.getMethod().getDeclaringClass().getSimpleName()
+                    + "." + invocation.getMethod().getName();
+            int count = stats.count() - before;
+            if (owned != null) QueryCounter.end();
+
+            DistributionSummary.builder("store.db.statements.service")
+                    .description("sentencias SQL por llamada a servicio")
+                    .tag("service", service)
+                    .register(meterRegistry.getObject())
+                    .record(count);
+            log.debug("{} ejecutó {} sentencias SQL", service, count);
+
+            if (owned != null)
+                for (Map.Entry<String, Integer> repeated : owned.repeated(repeatThreshold))
+                    log.warn("posible N+1 en {}: {} ejecuciones de [{}]", service, repeated.getValue(), repeated.getKey());
+        }
+    }
+}
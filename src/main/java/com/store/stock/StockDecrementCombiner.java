@@ -0,0 +1,307 @@
+package com.store.stock;
+
+import com.store.exception.ServiceBusyException;
+import com.store.product.event.ProductChangeType;
+import com.store.product.event.ProductChangedEvent;
+import com.store.product.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * descuentos de stock agrupados (group commit) para ventas con productos muy demandados;
+ * se activa con {@code store.stock.combiner.enabled=true}.
+ * <p>Sin esto cada checkout descuenta en su propia transacción y los que compran el
+ * mismo producto se esperan uno a otro durante todo el lock de la fila. Con el
+ * combinador los checkouts encolan su descuento y el primero que toma el turno
+ * procesa, con su propia conexión, los que hay en cola (hasta
+ * {@code store.stock.combiner.max-batch}, esperando hasta
+ * {@code store.stock.combiner.window} desde el más viejo): bloquea los productos
+ * del lote en orden de ID, decide en memoria, por orden de llegada, qué pedidos
+ * entran completos en el stock y los descuenta con un solo {@code UPDATE}. Cada
+ * pedido recibe su propio resultado; los que llegan mientras tanto forman el
+ * lote siguiente.
+ * <p>No hay un hilo propio: con open-in-view cada request ya retiene su conexión,
+ * y un hilo aparte que pidiera otra al pool podría quedarse esperando a los mismos
+ * checkouts que tiene que destrabar.
+ * <p>El descuento queda confirmado antes que la orden: si la orden falla después,
+ * quien llamó tiene que devolverlo con {@link #compensate}.
+ * <p>Métricas: {@code store.stock.combiner.batch.size} (pedidos por lote),
+ * {@code store.stock.combiner.queue.wait} (espera en cola),
+ * {@code store.stock.combiner.compensated} (descuentos devueltos) y
+ * {@code store.stock.combiner.compensation.pending} (devoluciones esperando reintento).
+ */
+@Slf4j
+@Component
+public class StockDecrementCombiner {
+    private final StockRepository stockRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Duration timeout;
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Counter compensated;
+
+    private final Queue<Request> queue = new ConcurrentLinkedQueue<>();
+    // devoluciones que fallaron: se reintentan hasta que la base las acepte
+    private final Queue<Map<Long, Integer>> pendingCompensations = new ConcurrentLinkedQueue<>();
+    // un solo lote a la vez: quien lo tiene procesa por todos
+    private final ReentrantLock turn = new ReentrantLock();
+
+    public StockDecrementCombiner(StockRepository stockRepository, ProductRepository productRepository,
+                                  TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${store.stock.combiner.enabled}") boolean enabled,
+                                  @Value("${store.stock.combiner.window}") Duration window,
+                                  @Value("${store.stock.combiner.max-batch}") int maxBatch,
+                                  @Value("${store.stock.combiner.timeout}") Duration timeout) {
+        this.stockRepository = stockRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = maxBatch;
+        this.timeout = timeout;
+        this.batchSize = DistributionSummary.builder("store.stock.combiner.batch.size")
+                .description("pedidos de descuento por lote").register(meterRegistry);
+        this.queueWait = Timer.builder("store.stock.combiner.queue.wait")
+                .description("espera de un pedido de descuento hasta entrar en un lote").register(meterRegistry);
+        this.compensated = Counter.builder("store.stock.combiner.compensated")
+                .description("descuentos devueltos porque la orden no se confirmó").register(meterRegistry);
+        Gauge.builder("store.stock.combiner.compensation.pending", pendingCompensations, Queue::size)
+                .description("devoluciones de stock que fallaron y esperan reintento").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * descuenta, confirmado en la base, todas las líneas de un pedido o ninguna.
+     * <p>Bloquea hasta que el lote del pedido se procesa (o {@code store.stock.combiner.timeout}),
+     * procesándolo en este hilo si nadie más lo está haciendo.
+     * @param quantities cantidad a descontar por producto
+     * @return stock resultante por producto; si alguno no alcanzaba no se descontó
+     *         nada y el mapa no trae los que faltan (los demás con su stock actual)
+     * @throws ServiceBusyException si el lote no se procesó a tiempo
+     */
+    public Map<Long, Integer> decrease(Map<Long, Integer> quantities) {
+        Request request = new Request(Map.copyOf(quantities), new CompletableFuture<>(), System.nanoTime());
+        queue.add(request);
+        long deadline = request.enqueuedAt + timeout.toNanos();
+        long pollNanos = Math.max(windowNanos, TimeUnit.MILLISECONDS.toNanos(1));
+        try {
+            while (!request.result.isDone()) {
+                if (turn.tryLock()) {
+                    try {
+                        if (!request.result.isDone()) combine();
+                    } finally {
+                        turn.unlock();
+                    }
+                    continue;
+                }
+                long left = deadline - System.nanoTime();
+                if (left <= 0) throw new TimeoutException();
+                try {
+                    request.result.get(Math.min(left, pollNanos), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // sigue esperando: el turno pudo haberse liberado
+                }
+            }
+            return request.result.get();
+        } catch (TimeoutException e) {
+            // si un lote ya lo tomó, quien lo procesa lo devuelve al ver el pedido cancelado
+            if (!request.result.cancel(false)) return completed(request);
+            throw new ServiceBusyException("El descuento de stock no se procesó a tiempo", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!request.result.cancel(false)) return completed(request);
+            throw new IllegalStateException("Checkout interrumpido esperando el descuento de stock");
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * devuelve un descuento ya confirmado cuya orden no llegó a guardarse y publica
+     * el stock nuevo (cachés, ETags y reservas). Si la base no lo acepta queda
+     * pendiente y se reintenta cada {@code store.stock.combiner.compensation-retry}.
+     */
+    public void compensate(Map<Long, Integer> quantities) {
+        if (!tryCompensate(quantities)) pendingCompensations.add(Map.copyOf(quantities));
+    }
+
+    @Scheduled(initialDelayString = "${store.stock.combiner.compensation-retry}",
+            fixedDelayString = "${store.stock.combiner.compensation-retry}")
+    public void retryCompensations() {
+        for (int left = pendingCompensations.size(); left > 0; left--) {
+            Map<Long, Integer> quantities = pendingCompensations.poll();
+            if (quantities == null) return;
+            if (!tryCompensate(quantities)) {
+                // la base sigue sin responder: el resto espera al próximo ciclo
+                pendingCompensations.add(quantities);
+                return;
+            }
+        }
+    }
+
+            /*-------------METODOS PRIVADOS AUXILIARES ------------*/
+
+    /**
+     * resultado de un pedido que un lote completó justo antes de poder cancelarlo:
+     * el descuento ya está confirmado y se usa (si se descartara, no lo devolvería nadie).
+     */
+    private static Map<Long, Integer> completed(Request request) {
+        try {
+            return request.result.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /** @return {@code false} si el stock no se pudo devolver (no cambió nada) */
+    private boolean tryCompensate(Map<Long, Integer> quantities) {
+        try {
+            stockRepository.increaseStocks(quantities);
+        } catch (RuntimeException e) {
+            log.error("No se pudo devolver el stock descontado {}, se reintenta", quantities, e);
+            return false;
+        }
+        compensated.increment();
+        try {
+            // un lector pudo haber cacheado el stock bajo (o agotado) mientras duró el descuento
+            eventPublisher.publishEvent(new ProductChangedEvent(ProductChangeType.UPDATED,
+                    productRepository.findViewsByIdIn(quantities.keySet())));
+        } catch (RuntimeException e) {
+            log.error("Stock devuelto {} sin avisar a las cachés", quantities, e);
+        }
+        return true;
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    /**
+     * arma un lote con lo que hay en cola, esperando a que se complete hasta que
+     * el pedido más viejo cumpla la ventana, y lo procesa. Requiere el turno.
+     */
+    private void combine() {
+        Request oldest = queue.peek();
+        if (oldest == null) return;
+        long wait = oldest.enqueuedAt + windowNanos - System.nanoTime();
+        if (wait > 0 && queue.size() < maxBatch) LockSupport.parkNanos(wait);
+
+        List<Request> batch = new ArrayList<>();
+        for (Request next; batch.size() < maxBatch && (next = queue.poll()) != null; ) batch.add(next);
+        try {
+            process(batch);
+        } catch (RuntimeException e) {
+            // cada pedido del lote ya recibió el error
+            log.error("Error en el lote de descuentos de stock", e);
+        }
+    }
+
+    private void process(List<Request> batch) {
+        long now = System.nanoTime();
+        List<Request> live = new ArrayList<>();
+        for (Request request : batch) {
+            queueWait.record(now - request.enqueuedAt, TimeUnit.NANOSECONDS);
+            if (!request.result.isDone()) live.add(request);
+        }
+        if (live.isEmpty()) return;
+        batchSize.record(live.size());
+
+        Map<Request, Map<Long, Integer>> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> allocate(live));
+        } catch (RuntimeException e) {
+            live.forEach(r -> r.result.completeExceptionally(e));
+            throw e;
+        }
+
+        outcomes.forEach((request, stocks) -> {
+            boolean accepted = stocks.size() == request.quantities.size();
+            // el que llamó ya se fue por timeout: su descuento no tiene orden
+            if (!request.result.complete(stocks) && accepted) compensate(request.quantities);
+        });
+    }
+
+    /**
+     * reparte el stock bloqueado entre los pedidos, por orden de llegada, y
+     * descuenta lo aceptado con una sola sentencia.
+     * @return resultado de cada pedido, con el mismo formato que {@link #decrease}
+     */
+    private Map<Request, Map<Long, Integer>> allocate(List<Request> requests) {
+        Set<Long> productIds = new HashSet<>();
+        requests.forEach(r -> productIds.addAll(r.quantities.keySet()));
+        Map<Long, Integer> available = stockRepository.lockStocks(productIds);
+
+        Map<Long, Integer> totals = new TreeMap<>();
+        List<Request> accepted = new ArrayList<>();
+        Map<Request, Map<Long, Integer>> outcomes = new HashMap<>();
+        for (Request request : requests) {
+            boolean fits = request.quantities.entrySet().stream()
+                    .allMatch(line -> available.getOrDefault(line.getKey(), 0) >= line.getValue());
+            if (fits) {
+                request.quantities.forEach((productId, quantity) -> {
+                    available.merge(productId, -quantity, Integer::sum);
+                    totals.merge(productId, quantity, Integer::sum);
+                });
+                accepted.add(request);
+            } else {
+                Map<Long, Integer> partial = new HashMap<>();
+                request.quantities.forEach((productId, quantity) -> {
+                    int stock = available.getOrDefault(productId, 0);
+                    if (stock >= quantity) partial.put(productId, stock);
+                });
+                outcomes.put(request, partial);
+            }
+        }
+
+        Map<Long, Integer> newStocks = stockRepository.decreaseStocks(totals);
+        if (newStocks.size() < totals.size())
+            throw new IllegalStateException("Stock bloqueado distinto del descontado: " + totals + " / " + newStocks);
+
+        for (Request request : accepted) {
+            Map<Long, Integer> stocks = new HashMap<>();
+            request.quantities.keySet().forEach(productId -> stocks.put(productId, newStocks.get(productId)));
+            outcomes.put(request, stocks);
+        }
+        return outcomes;
+    }
+
+    private record Request(Map<Long, Integer> quantities, CompletableFuture<Map<Long, Integer>> result,
+                           long enqueuedAt) {}
+}
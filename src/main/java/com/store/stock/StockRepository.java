@@ -0,0 +1,127 @@
+package com.store.stock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * lecturas y descuentos de stock con JDBC plano, sin cargar entidades.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockRepository {
+    /*
+     * descuento de todas las líneas de una orden en una sola sentencia. Las filas
+     * se bloquean primero en orden de ID (dos checkouts con productos en común
+     * nunca se esperan en orden cruzado) y solo se descuentan las que alcanzan.
+     */
+    private static final String DECREASE_STOCKS = """
+            WITH requested AS (
+                SELECT * FROM unnest(?::bigint[], ?::int[]) AS u(product_id, quantity)
+            ), locked AS (
+                SELECT p.id FROM products p
+                WHERE p.id IN (SELECT product_id FROM requested)
+                ORDER BY p.id
+                FOR UPDATE
+            )
+            UPDATE products p
+            SET stock = p.stock - r.quantity
+            FROM requested r
+            WHERE p.id = r.product_id
+              AND p.id IN (SELECT id FROM locked)
+              AND p.stock >= r.quantity
+            RETURNING p.id, p.stock
+            """;
+
+    // mismo orden de bloqueo que el descuento
+    private static final String INCREASE_STOCKS = """
+            WITH returned AS (
+                SELECT * FROM unnest(?::bigint[], ?::int[]) AS u(product_id, quantity)
+            ), locked AS (
+                SELECT p.id FROM products p
+                WHERE p.id IN (SELECT product_id FROM returned)
+                ORDER BY p.id
+                FOR UPDATE
+            )
+            UPDATE products p
+            SET stock = p.stock + r.quantity
+            FROM returned r
+            WHERE p.id = r.product_id
+              AND p.id IN (SELECT id FROM locked)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * stock actual de varios productos en una sola consulta.
+     * @return stock por ID; los productos que no existen no aparecen
+     */
+    public Map<Long, Integer> findStocks(Collection<Long> productIds) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        if (productIds.isEmpty()) return stocks;
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("SELECT id, stock FROM products WHERE id = ANY(?)");
+            ps.setArray(1, connection.createArrayOf("int8", productIds.toArray()));
+            return ps;
+        }, rs -> { stocks.put(rs.getLong(1), rs.getInt(2)); });
+        return stocks;
+    }
+
+    /**
+     * bloquea los productos en orden de ID hasta el fin de la transacción.
+     * @return stock actual por ID; los productos que no existen no aparecen
+     */
+    public Map<Long, Integer> lockStocks(Collection<Long> productIds) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        if (productIds.isEmpty()) return stocks;
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT id, stock FROM products WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+            ps.setArray(1, connection.createArrayOf("int8", productIds.toArray()));
+            return ps;
+        }, rs -> { stocks.put(rs.getLong(1), rs.getInt(2)); });
+        return stocks;
+    }
+
+    /**
+     * descuenta el stock de varios productos a la vez, cada uno solo si alcanza.
+     * Debe llamarse dentro de una transacción: si falta stock de alguno, quien
+     * llama tiene que hacer rollback de lo descontado.
+     * @param quantities cantidad a descontar por producto
+     * @return stock resultante de cada producto descontado; falta el ID de los que no alcanzaban
+     */
+    public Map<Long, Integer> decreaseStocks(Map<Long, Integer> quantities) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        if (quantities.isEmpty()) return stocks;
+
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DECREASE_STOCKS);
+            ps.setArray(1, connection.createArrayOf("int8", sorted.keySet().toArray()));
+            ps.setArray(2, connection.createArrayOf("int4", sorted.values().toArray()));
+            return ps;
+        }, rs -> { stocks.put(rs.getLong(1), rs.getInt(2)); });
+        return stocks;
+    }
+
+    /** devuelve stock descontado (compensación de un descuento ya confirmado). */
+    public int increaseStocks(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) return 0;
+
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INCREASE_STOCKS);
+            ps.setArray(1, connection.createArrayOf("int8", sorted.keySet().toArray()));
+            ps.setArray(2, connection.createArrayOf("int4", sorted.values().toArray()));
+            return ps;
+        });
+    }
+}
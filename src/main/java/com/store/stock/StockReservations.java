@@ -0,0 +1,330 @@
+package com.store.stock;
+
+import com.store.exception.BusinessException;
+import com.store.product.dto.ProductResponseDTO;
+import com.store.product.event.ProductChangeType;
+import com.store.product.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * reservas de stock de los carritos.
+ * <p>Agregar un producto al carrito retiene esa cantidad: el stock libre de un
+ * producto es su stock menos lo reservado por todos los carritos, así que un
+ * checkout no falla por unidades que ya se llevó otro carrito. Las reservas de
+ * un carrito vencen si pasa {@code store.stock.reservations.ttl} sin cambios en
+ * él, y se liberan al quitar el producto, vaciar el carrito o confirmar la orden
+ * (el descuento real del stock lo hace el checkout en la base).
+ * <p>Los contadores por producto se actualizan con CAS, sin locks; las reservas
+ * de cada sesión se modifican bajo uno de {@value #STRIPES} locks elegido por
+ * hash. Cada {@code store.stock.reservations.reconcile-interval} se liberan las
+ * vencidas y se vuelve a leer el stock de la base; entre medio lo mantienen al
+ * día los {@link ProductChangedEvent}.
+ * <p>Si la reserva se hizo dentro de una transacción que termina en rollback, se
+ * deshace. Las reservas viven en la JVM: con varias instancias cada una reserva
+ * sobre su propia vista, y la verificación de stock del checkout sigue siendo la
+ * garantía final.
+ */
+@Slf4j
+@Component
+public class StockReservations {
+    private static final int STRIPES = 256;
+
+    private final StockRepository stockRepository;
+    private final long ttlMillis;
+    private final Counter rejected;
+    private final Counter expired;
+
+    private final Map<Long, ProductStock> stocks = new ConcurrentHashMap<>();
+    private final Map<String, SessionHolds> sessions = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public StockReservations(StockRepository stockRepository, MeterRegistry meterRegistry,
+                             @Value("${store.stock.reservations.ttl}") Duration ttl) {
+        this.stockRepository = stockRepository;
+        this.ttlMillis = ttl.toMillis();
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+
+        this.rejected = Counter.builder("store.stock.reservations.rejected")
+                .description("reservas rechazadas por falta de stock libre").register(meterRegistry);
+        this.expired = Counter.builder("store.stock.reservations.expired")
+                .description("carritos cuyas reservas vencieron").register(meterRegistry);
+        Gauge.builder("store.stock.reserved", this, StockReservations::reservedUnits)
+                .description("unidades reservadas por carritos").register(meterRegistry);
+    }
+
+    /**
+     * fija en {@code quantity} la reserva del producto para el carrito de la sesión.
+     * @param quantity cantidad final del producto en el carrito (0 libera la reserva)
+     * @throws BusinessException si el aumento no entra en el stock libre
+     */
+    public void hold(String sessionId, Long productId, int quantity) {
+        holdAll(sessionId, Map.of(productId, quantity));
+    }
+
+    /**
+     * fija varias reservas del carrito a la vez: se aplican todas o ninguna.
+     * @param quantities cantidad final por producto (0 libera la reserva)
+     * @throws BusinessException si algún aumento no entra en el stock libre
+     */
+    public void holdAll(String sessionId, Map<Long, Integer> quantities) {
+        if (sessionId == null || quantities.isEmpty()) return;
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            SessionHolds holds = sessions.computeIfAbsent(sessionId, id -> new SessionHolds());
+            try {
+                Map<Long, Integer> previous = apply(holds, quantities, true);
+                holds.expiresAt = System.currentTimeMillis() + ttlMillis;
+                undoOnRollback(sessionId, previous);
+            } finally {
+                if (holds.quantities.isEmpty()) sessions.remove(sessionId, holds);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(String sessionId, Long productId) {
+        holdAll(sessionId, Map.of(productId, 0));
+    }
+
+    /** libera todas las reservas del carrito (carrito vaciado). */
+    public void releaseAll(String sessionId) {
+        undoOnRollback(sessionId, clear(sessionId));
+    }
+
+    /**
+     * convierte las reservas del carrito en la orden: el stock se descuenta en la
+     * base, así que al confirmar la transacción actual las unidades dejan de estar
+     * retenidas. Se liberan antes que los listeners del {@link ProductChangedEvent}
+     * del checkout bajen el stock: si no, esas unidades contarían dos veces
+     * (reservadas y descontadas) y otros carritos verían menos stock libre.
+     * Sin transacción se liberan en el momento.
+     */
+    public void consume(String sessionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear(sessionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                clear(sessionId);
+            }
+        });
+    }
+
+    /**
+     * libera las reservas vencidas y vuelve a leer de la base el stock de los
+     * productos con contador.
+     */
+    @Scheduled(initialDelayString = "${store.stock.reservations.reconcile-interval}",
+            fixedDelayString = "${store.stock.reservations.reconcile-interval}")
+    public void reconcile() {
+        releaseExpired();
+        refreshStocks(List.copyOf(stocks.keySet()));
+    }
+
+    /** el checkout y las altas, bajas o ediciones de productos traen el stock nuevo. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangeType.BULK_IMPORTED) {
+            refreshStocks(List.copyOf(stocks.keySet()));
+            return;
+        }
+        for (ProductResponseDTO product : event.products()) {
+            ProductStock stock = stocks.get(product.getId());
+            if (stock == null) continue;
+            stock.stock = event.type() == ProductChangeType.DELETED || product.getStock() == null
+                    ? 0 : product.getStock();
+        }
+    }
+
+            /*-------------METODOS PRIVADOS AUXILIARES ------------*/
+
+    /**
+     * lleva cada reserva del carrito a su cantidad final; si un aumento no entra,
+     * deshace los cambios ya hechos. Requiere el lock de la sesión.
+     * @return cantidades anteriores de las reservas que cambiaron
+     */
+    private Map<Long, Integer> apply(SessionHolds holds, Map<Long, Integer> quantities, boolean checkStock) {
+        Map<Long, Integer> previous = new LinkedHashMap<>();
+        try {
+            quantities.forEach((productId, quantity) -> {
+                int target = Math.max(quantity, 0);
+                int current = holds.quantities.getOrDefault(productId, 0);
+                if (target == current) return;
+
+                ProductStock stock = stockOf(productId);
+                int delta = target - current;
+                if (delta > 0 && checkStock) {
+                    if (!stock.tryReserve(delta)) {
+                        rejected.increment();
+                        throw new BusinessException("Sin stock suficiente: las unidades del producto ID "
+                                + productId + " están reservadas en otros carritos");
+                    }
+                } else {
+                    stock.reserved.addAndGet(delta);
+                }
+
+                previous.put(productId, current);
+                if (target == 0) holds.quantities.remove(productId);
+                else holds.quantities.put(productId, target);
+            });
+        } catch (RuntimeException e) {
+            apply(holds, previous, false);
+            throw e;
+        }
+        return previous;
+    }
+
+    /** libera todas las reservas de la sesión. @return cantidades que tenía reservadas */
+    private Map<Long, Integer> clear(String sessionId) {
+        if (sessionId == null) return Map.of();
+
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            SessionHolds holds = sessions.remove(sessionId);
+            return holds == null ? Map.of() : releaseLocked(holds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Long, Integer> releaseLocked(SessionHolds holds) {
+        Map<Long, Integer> released = new HashMap<>();
+        holds.quantities.keySet().forEach(productId -> released.put(productId, 0));
+        return apply(holds, released, false);
+    }
+
+    /** si la transacción actual termina en rollback, las reservas vuelven a como estaban. */
+    private void undoOnRollback(String sessionId, Map<Long, Integer> previous) {
+        if (previous.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) restore(sessionId, previous);
+            }
+        });
+    }
+
+    private void restore(String sessionId, Map<Long, Integer> quantities) {
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            SessionHolds holds = sessions.computeIfAbsent(sessionId, id -> new SessionHolds());
+            apply(holds, quantities, false);
+            holds.expiresAt = System.currentTimeMillis() + ttlMillis;
+            if (holds.quantities.isEmpty()) sessions.remove(sessionId, holds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseExpired() {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (Map.Entry<String, SessionHolds> entry : sessions.entrySet()) {
+            if (entry.getValue().expiresAt >= now) continue;
+
+            ReentrantLock lock = lockFor(entry.getKey());
+            lock.lock();
+            try {
+                SessionHolds holds = sessions.get(entry.getKey());
+                if (holds != null && holds.expiresAt < now) {
+                    releaseLocked(holds);
+                    sessions.remove(entry.getKey(), holds);
+                    count++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (count > 0) {
+            expired.increment(count);
+            log.info("Reservas de stock vencidas: {} carritos", count);
+        }
+    }
+
+    private void refreshStocks(Collection<Long> productIds) {
+        Map<Long, Integer> current = stockRepository.findStocks(productIds);
+        for (Long productId : productIds) {
+            ProductStock stock = stocks.get(productId);
+            if (stock != null) stock.stock = current.getOrDefault(productId, 0);
+        }
+    }
+
+    /** contador del producto; la primera vez lee su stock de la base (un producto borrado queda en 0). */
+    private ProductStock stockOf(Long productId) {
+        ProductStock stock = stocks.get(productId);
+        if (stock != null) return stock;
+
+        int current = stockRepository.findStocks(List.of(productId)).getOrDefault(productId, 0);
+        ProductStock loaded = new ProductStock(current);
+        stock = stocks.putIfAbsent(productId, loaded);
+        return stock != null ? stock : loaded;
+    }
+
+    private double reservedUnits() {
+        long total = 0;
+        for (ProductStock stock : stocks.values()) total += stock.reserved.get();
+        return total;
+    }
+
+    private ReentrantLock lockFor(String sessionId) {
+        int h = sessionId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /** stock conocido de un producto y unidades reservadas sobre él. */
+    private static final class ProductStock {
+        volatile int stock;
+        final AtomicInteger reserved = new AtomicInteger();
+
+        ProductStock(int stock) {
+            this.stock = stock;
+        }
+
+        boolean tryReserve(int units) {
+            while (true) {
+                int current = reserved.get();
+                if (stock - current < units) return false;
+                if (reserved.compareAndSet(current, current + units)) return true;
+            }
+        }
+    }
+
+    /** reservas de un carrito por producto; se modifican solo con el lock de su sesión. */
+    private static final class SessionHolds {
+        final Map<Long, Integer> quantities = new HashMap<>();
+        volatile long expiresAt;
+    }
+}
@@ -0,0 +1,164 @@
+package com.store.querycount;
+
+import com.store.security.jwt.JwtService;
+import com.store.user.Role;
+import com.store.user.entity.UserEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.FieldSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * sentencias SQL de los endpoints de lectura contra su presupuesto
+ * ({@link QueryBudget} o {@code store.query-budget.default}), sin sentencias repetidas
+ * {@code store.query-budget.repeat-threshold} veces o más (síntoma de N+1).
+ * <p>El conteo se abre antes del request, así el interceptor lo reutiliza y no lo
+ * cierra: al volver, tiene todas las sentencias del request, incluida la carga del
+ * usuario del token en los endpoints autenticados. Los datos de prueba
+ * ({@code catalog-data.sql}) tienen más filas que cualquier presupuesto, así que un
+ * listado que carga relaciones fila por fila no entra.
+ * <p>Corre sobre H2 (la búsqueda con el motor en memoria), así que queda afuera
+ * {@code /products/browse}, cuyas facetas usan {@code GROUPING SETS} (H2 no los
+ * tiene); tampoco están las exportaciones, que escriben en streaming fuera del request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+    // el administrador que crea ApplicationConfig al arrancar
+    private static final String ADMIN_EMAIL = "admin@store.com";
+
+    // cada uno se pide una sola vez: la primera, sin cachés, es la que más consultas hace
+    private static final String[] PUBLIC_ENDPOINTS = {
+            "/products/catalog",
+            "/products/catalog/slice",
+            "/products/catalog/cursor",
+            "/products/1",
+            "/products/filter/category/1",
+            "/products/filter/category/1/slice",
+            "/products/filter/category/1/cursor",
+            "/products/filter/subcategory/1/cursor",
+            "/products/filter/price?min=10000&max=40000",
+            "/products/filter/price/slice?min=10000&max=40000",
+            "/products/filter/price/cursor?min=10000&max=40000",
+            "/products/search?name=yerba",
+            "/products/suggest?prefix=yer",
+            "/categories",
+            "/categories/sub",
+            "/categories/1",
+            "/carts"
+    };
+
+    // con el token del administrador
+    private static final String[] ADMIN_ENDPOINTS = {
+            "/admin/products",
+            "/admin/products/cursor",
+            "/admin/products/out-of-stock",
+            "/admin/products/search?name=yerba",
+            "/admin/orders",
+            "/admin/orders/cursor",
+            "/admin/orders/1",
+            "/admin/orders/status?status=PAID",
+            "/admin/orders/status/cursor?status=PAID",
+            "/admin/orders/report?start=2025-11-01T00:00:00&end=2025-11-30T23:59:59",
+            "/orders/2"
+    };
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Value("${store.query-budget.default}")
+    private int defaultBudget;
+
+    @Value("${store.query-budget.repeat-threshold}")
+    private int repeatThreshold;
+
+    @AfterEach
+    void closeCount() {
+        QueryCounter.end();
+    }
+
+    @ParameterizedTest
+    @FieldSource("PUBLIC_ENDPOINTS")
+    void publicEndpointStaysWithinBudget(String url) throws Exception {
+        assertWithinBudget(url, get(url));
+    }
+
+    @ParameterizedTest
+    @FieldSource("ADMIN_ENDPOINTS")
+    void adminEndpointStaysWithinBudget(String url) throws Exception {
+        UserEntity admin = UserEntity.builder().email(ADMIN_EMAIL).role(Role.ADMIN).build();
+        assertWithinBudget(url, get(url).header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(admin)));
+    }
+
+    /** un endpoint con presupuesto propio que no se prueba acá no tiene quién lo sostenga. */
+    @Test
+    void everyAnnotatedEndpointIsExercised() throws Exception {
+        Set<Method> exercised = new HashSet<>();
+        for (String url : PUBLIC_ENDPOINTS) exercised.add(handlerFor(url).getMethod());
+        for (String url : ADMIN_ENDPOINTS) exercised.add(handlerFor(url).getMethod());
+
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            if (!entry.getValue().hasMethodAnnotation(QueryBudget.class)) continue;
+            assertThat(exercised.contains(entry.getValue().getMethod()))
+                    .as("%s tiene @QueryBudget pero no se prueba", entry.getKey())
+                    .isTrue();
+        }
+    }
+
+            /*-------------METODOS PRIVADOS AUXILIARES ------------*/
+
+    private void assertWithinBudget(String url, MockHttpServletRequestBuilder request) throws Exception {
+        QueryCounter.Stats stats = QueryCounter.begin();
+
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        assertThat(stats.count())
+                .as("sentencias SQL de %s", url)
+                .isLessThanOrEqualTo(budgetOf(handlerFor(url)));
+        assertThat(stats.repeated(repeatThreshold))
+                .as("sentencias repetidas en %s", url)
+                .isEmpty();
+    }
+
+    private HandlerMethod handlerFor(String url) throws Exception {
+        HandlerExecutionChain chain = handlerMapping.getHandler(get(url).buildRequest(new MockServletContext()));
+        assertThat(chain).as("sin handler para %s", url).isNotNull();
+        return (HandlerMethod) chain.getHandler();
+    }
+
+    private int budgetOf(HandlerMethod handler) {
+        QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+        return budget != null ? budget.value() : defaultBudget;
+    }
+}
@@ -0,0 +1,29 @@
+package com.store.support;
+
+import org.hibernate.boot.model.TypeContributions;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.jdbc.VarcharJdbcType;
+import org.hibernate.type.descriptor.sql.internal.DdlTypeImpl;
+
+/**
+ * H2 para los tests: los enums nativos de PostgreSQL ({@link SqlTypes#NAMED_ENUM},
+ * p. ej. el estado de la orden) se guardan como texto.
+ */
+public class H2TestDialect extends H2Dialect {
+
+    @Override
+    protected void registerColumnTypes(TypeContributions typeContributions, ServiceRegistry serviceRegistry) {
+        super.registerColumnTypes(typeContributions, serviceRegistry);
+        typeContributions.getTypeConfiguration().getDdlTypeRegistry()
+                .addDescriptor(new DdlTypeImpl(SqlTypes.NAMED_ENUM, "varchar(32)", this));
+    }
+
+    @Override
+    public void contributeTypes(TypeContributions typeContributions, ServiceRegistry serviceRegistry) {
+        super.contributeTypes(typeContributions, serviceRegistry);
+        typeContributions.getTypeConfiguration().getJdbcTypeRegistry()
+                .addDescriptor(SqlTypes.NAMED_ENUM, VarcharJdbcType.INSTANCE);
+    }
+}
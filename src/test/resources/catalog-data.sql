@@ -0,0 +1,39 @@
+CREATE TABLE IF NOT EXISTS resource_generations (
+    name       VARCHAR(32) PRIMARY KEY,
+    generation BIGINT      NOT NULL DEFAULT 0
+);
+INSERT INTO resource_generations (name) VALUES ('products'), ('categories');
+
+INSERT INTO categories (id, name, description) VALUES
+    (1, 'Yerbas', 'Yerbas mate'),
+    (2, 'Mates', 'Mates y bombillas');
+
+INSERT INTO subcategories (id, name, description, category_id) VALUES
+    (1, 'Con palo', 'Yerbas con palo', 1),
+    (2, 'Sin palo', 'Yerbas sin palo', 1),
+    (3, 'Calabazas', 'Mates de calabaza', 2);
+
+INSERT INTO products (id, name, price, description, url, stock, subcategory_id) VALUES
+    (1, 'Yerba Mate Canarias 1kg', 12345.00, 'Yerba uruguaya', NULL, 10, 2),
+    (2, 'Yerba Mate Playadito 1kg', 32000.00, 'Yerba suave', NULL, 47, 1),
+    (3, 'Yerba Mate Rosamonte Plus', 38000.00, 'Yerba intensa', NULL, 20, 1),
+    (4, 'Yerba Mate CBSé Hierbas', 28000.00, 'Yerba con hierbas', NULL, 60, 1),
+    (5, 'Mate Imperial', 55000.00, 'Calabaza forrada en cuero', NULL, 0, 3),
+    (6, 'Mate Camionero Uruguayo', 41000.00, 'Calabaza con virola', NULL, 8, 3);
+
+-- volumen por encima de cualquier presupuesto: un N+1 en un listado se nota en el conteo
+INSERT INTO products (id, name, price, description, url, stock, subcategory_id)
+SELECT n, 'Yerba Mate Serie ' || n, 10000 + n * 500, 'Yerba de prueba', NULL, MOD(n, 7), 1 + MOD(n, 3)
+FROM SYSTEM_RANGE(7, 46) AS r(n);
+
+INSERT INTO orders (id, customer_name, customer_email, customer_phone, shipping_address, shipping_city,
+                    shipping_zip, total_amount, cart_id, created_at, status)
+SELECT n, 'Cliente ' || n, 'cliente' || n || '@store.test', '099000000', 'Calle ' || n, 'Montevideo',
+       '11000', 90000, n, TIMESTAMP '2025-11-01 10:00:00' + n * INTERVAL '1' HOUR,
+       CASE MOD(n, 3) WHEN 0 THEN 'PENDING' WHEN 1 THEN 'PAID' ELSE 'SHIPPED' END
+FROM SYSTEM_RANGE(1, 30) AS r(n);
+
+-- tres ítems por orden, de productos y subcategorías distintas
+INSERT INTO order_items (order_id, product_id, quantity, price)
+SELECT o.n, 1 + MOD(o.n * 3 + i.n, 46), 1, 30000
+FROM SYSTEM_RANGE(1, 30) AS o(n) CROSS JOIN SYSTEM_RANGE(0, 2) AS i(n);